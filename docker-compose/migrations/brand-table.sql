@@ -0,0 +1,41 @@
+-- One-off migration of a database created before the brand table onto it, to run once, from a single
+-- client, while no instance of the application is running, then start the version using the brand table:
+--   docker exec -i device-db-ms mysql -uroot -proot device_db < docker-compose/migrations/brand-table.sql
+-- Moves the brands of the devices into the brand table, replacing each device brand by its ID, and drops
+-- the former brand column along with its index. Fails on its first statement, changing nothing, if the
+-- database was already migrated.
+--
+-- Reports the size of the device table and of its indexes before and after, both measured on a rebuilt
+-- table so that the space freed by the dropped column is not left in its pages.
+
+SET SESSION information_schema_stats_expiry = 0;
+
+OPTIMIZE TABLE `device`;
+
+SELECT 'before' AS `measured`, table_rows, avg_row_length, data_length, index_length
+    FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = 'device';
+
+CREATE TABLE IF NOT EXISTS `brand` (
+    `brand_id` int AUTO_INCREMENT PRIMARY KEY,
+    `brand_name` varchar(100) COLLATE utf8mb4_bin NOT NULL,
+    UNIQUE KEY `uk_brand_name` (`brand_name`)
+    );
+
+ALTER TABLE `device` ADD COLUMN `device_brand_id` int DEFAULT NULL AFTER `device_name`;
+
+INSERT IGNORE INTO `brand` (`brand_name`) SELECT DISTINCT `device_brand` COLLATE utf8mb4_bin FROM `device`;
+
+UPDATE `device` d JOIN `brand` b ON b.`brand_name` = d.`device_brand` COLLATE utf8mb4_bin
+    SET d.`device_brand_id` = b.`brand_id`;
+
+DROP INDEX `idx_device_brand_state` ON `device`;
+
+ALTER TABLE `device` MODIFY `device_brand_id` int NOT NULL, DROP COLUMN `device_brand`,
+    ADD CONSTRAINT `fk_device_brand` FOREIGN KEY (`device_brand_id`) REFERENCES `brand` (`brand_id`);
+
+CREATE INDEX `idx_device_brand_id_state` ON `device` (`device_brand_id`, `device_state`);
+
+OPTIMIZE TABLE `device`;
+
+SELECT 'after' AS `measured`, table_rows, avg_row_length, data_length, index_length
+    FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = 'device';
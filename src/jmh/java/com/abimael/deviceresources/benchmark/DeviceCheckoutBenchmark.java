@@ -0,0 +1,79 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.DeviceResourcesApplication;
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.util.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Contention benchmark of device checkouts, against the application context started with the
+ * {@code embedded} profile on an in-memory H2 database. 64 workers check out a device of the
+ * same brand and release it at once, measuring claims per second. Every claimed device is
+ * tracked until released, and the benchmark fails on the first device claimed twice.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class DeviceCheckoutBenchmark {
+
+    private static final String BRAND = "Checkout";
+
+    // More devices than workers, so checkouts contend on the lowest IDs without running out.
+    private static final int DEVICES = 256;
+
+    private ConfigurableApplicationContext context;
+
+    private IDeviceService deviceService;
+
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DeviceResourcesApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .run();
+        deviceService = context.getBean(IDeviceService.class);
+        deviceService.createDevices(IntStream.range(0, DEVICES)
+                .mapToObj(i -> new DeviceDto(null, "Checkout device " + i, BRAND, State.AVAILABLE, null))
+                .iterator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DeviceDto checkoutAndRelease() {
+        DeviceDto device = deviceService.checkoutDevice(BRAND);
+        if (!claimed.add(device.getId())) {
+            throw new IllegalStateException("Device " + device.getId() + " was checked out twice");
+        }
+        claimed.remove(device.getId());
+        return deviceService.releaseDevice(device.getId());
+    }
+}
@@ -0,0 +1,59 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.index.BrandDictionary;
+import com.abimael.deviceresources.util.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap of a cached {@link DeviceDto} whose brand is decoded from its own column, as devices
+ * were read before the brand table, and whose brand is the instance shared through the {@link BrandDictionary}.
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of bytes each DTO retains in the cache.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceFootprintBenchmark {
+
+    @Param({"Nokia", "Samsung", "Hewlett Packard Enterprise"})
+    private String brand;
+
+    private byte[] brandColumn;
+
+    private String sharedBrand;
+
+    private long id = 1_000;
+
+    @Setup
+    public void setUp() {
+        brandColumn = brand.getBytes(StandardCharsets.UTF_8);
+        sharedBrand = brand;
+    }
+
+    @Benchmark
+    public DeviceDto ownBrand() {
+        id++;
+        return new DeviceDto(id, null, new String(brandColumn, StandardCharsets.UTF_8), State.AVAILABLE, id);
+    }
+
+    @Benchmark
+    public DeviceDto sharedBrand() {
+        id++;
+        return new DeviceDto(id, null, sharedBrand, State.AVAILABLE, id);
+    }
+}
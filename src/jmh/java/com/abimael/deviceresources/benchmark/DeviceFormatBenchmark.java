@@ -0,0 +1,88 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.util.State;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks of the encoding and decoding of lists of {@link DeviceDto}s in each representation
+ * negotiated by the API, with object mappers built like the ones of the application.
+ * The payload size of each representation is logged when the benchmark is set up.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceFormatBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceFormatBenchmark.class);
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectWriter listWriter;
+
+    private ObjectReader listReader;
+
+    private List<DeviceDto> devices;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, DeviceDto.class));
+        listReader = objectMapper.readerForListOf(DeviceDto.class);
+        devices = IntStream.range(0, size)
+                .mapToObj(i -> new DeviceDto((long) i, "Device name " + i, "Device brand", State.values()[i % 3], 0L))
+                .toList();
+        payload = listWriter.writeValueAsBytes(devices);
+        logger.info("{} payload of {} devices: {} bytes", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeDevices() throws IOException {
+        return listWriter.writeValueAsBytes(devices);
+    }
+
+    @Benchmark
+    public List<DeviceDto> decodeDevices() throws IOException {
+        return listReader.readValue(payload);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.util.State;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks of the JSON serialization and deserialization of {@link DeviceDto}s and lists of them,
+ * with an {@link ObjectMapper} configured like the one of the application.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceJsonBenchmark {
+
+    @Param({"1", "100"})
+    private int size;
+
+    private ObjectWriter deviceWriter;
+
+    private ObjectReader deviceReader;
+
+    private ObjectWriter listWriter;
+
+    private ObjectReader listReader;
+
+    private DeviceDto device;
+
+    private List<DeviceDto> devices;
+
+    private String deviceJson;
+
+    private String devicesJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        deviceWriter = objectMapper.writerFor(DeviceDto.class);
+        deviceReader = objectMapper.readerFor(DeviceDto.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, DeviceDto.class));
+        listReader = objectMapper.readerForListOf(DeviceDto.class);
+        devices = IntStream.range(0, size)
+                .mapToObj(i -> new DeviceDto((long) i, "Device name " + i, "Device brand", State.values()[i % 3], 0L))
+                .toList();
+        device = devices.get(0);
+        deviceJson = deviceWriter.writeValueAsString(device);
+        devicesJson = listWriter.writeValueAsString(devices);
+    }
+
+    @Benchmark
+    public String serializeDevice() throws JsonProcessingException {
+        return deviceWriter.writeValueAsString(device);
+    }
+
+    @Benchmark
+    public DeviceDto deserializeDevice() throws JsonProcessingException {
+        return deviceReader.readValue(deviceJson);
+    }
+
+    @Benchmark
+    public String serializeDevices() throws JsonProcessingException {
+        return listWriter.writeValueAsString(devices);
+    }
+
+    @Benchmark
+    public List<DeviceDto> deserializeDevices() throws JsonProcessingException {
+        return listReader.readValue(devicesJson);
+    }
+}
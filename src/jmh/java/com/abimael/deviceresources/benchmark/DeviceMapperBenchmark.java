@@ -0,0 +1,54 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.mapper.DeviceMapper;
+import com.abimael.deviceresources.util.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the mapping between {@link Device} entities and {@link DeviceDto}s.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceMapperBenchmark {
+
+    private Device device;
+
+    private DeviceDto deviceDto;
+
+    @Setup
+    public void setUp() {
+        device = new Device();
+        device.setId(1L);
+        device.setName("Device name");
+        device.setBrand("Device brand");
+        device.setState(State.AVAILABLE);
+        device.setVersion(0L);
+        deviceDto = new DeviceDto(1L, "Device name", "Device brand", State.IN_USE, 0L);
+    }
+
+    @Benchmark
+    public DeviceDto mapToDeviceDto() {
+        return DeviceMapper.mapToDeviceDto(device);
+    }
+
+    @Benchmark
+    public Device mapToDevice() {
+        return DeviceMapper.mapToDevice(deviceDto);
+    }
+}
@@ -0,0 +1,65 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.index.DeviceNameIndex;
+import com.abimael.deviceresources.util.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a page of name search in the {@link DeviceNameIndex} over a million devices,
+ * for a common text matching many devices and a rare one matching few.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class DeviceNameIndexBenchmark {
+
+    private static final int DEVICES = 1_000_000;
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Nokia", "Google", "Xiaomi"};
+
+    private static final String[] MODELS = {"Phone", "Tablet", "Watch", "Laptop", "Router", "Camera"};
+
+    @Param({"phone", "tablet 4242"})
+    private String text;
+
+    private DeviceNameIndex deviceNameIndex;
+
+    @Setup
+    public void setUp() {
+        deviceNameIndex = new DeviceNameIndex(null, null);
+        Random random = new Random(42);
+        for (long id = 1; id <= DEVICES; id++) {
+            deviceNameIndex.onDeviceChanged(DeviceChangedEvent.created(new DeviceDto(id,
+                    MODELS[random.nextInt(MODELS.length)] + " " + random.nextInt(100_000),
+                    BRANDS[random.nextInt(BRANDS.length)],
+                    State.values()[random.nextInt(3)], 0L)));
+        }
+    }
+
+    @Benchmark
+    public long[] search() {
+        return deviceNameIndex.search(text, null, null, 0L, 101);
+    }
+
+    @Benchmark
+    public long[] searchByBrandAndState() {
+        return deviceNameIndex.search(text, "Apple", State.IN_USE, 0L, 101);
+    }
+}
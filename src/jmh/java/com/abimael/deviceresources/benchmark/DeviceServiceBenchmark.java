@@ -0,0 +1,136 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.DeviceResourcesApplication;
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DevicePageDto;
+import com.abimael.deviceresources.mapper.DeviceMapper;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.util.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks of the device service and repository operations, against the application context
+ * started with the {@code embedded} profile on an in-memory H2 database.
+ * Compares single and batch creation, and reading a device as a projection or as an entity.
+ * Creations grow the table during the run, which only affects the benchmarks reading by brand.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceServiceBenchmark {
+
+    private static final int DEVICES = 10_000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+
+    private IDeviceService deviceService;
+
+    private DeviceRepository deviceRepository;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private List<Long> ids;
+
+    private List<DeviceDto> batch;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DeviceResourcesApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .run();
+        deviceService = context.getBean(IDeviceService.class);
+        deviceRepository = context.getBean(DeviceRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        ids = deviceService.createDevices(devices(DEVICES).iterator()).stream()
+                .map(DeviceBatchResultDto::getId)
+                .toList();
+        batch = devices(BATCH_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DeviceDto createDevice() {
+        return deviceService.createDevice(new DeviceDto(null, "Benchmark device", "Benchmark", State.AVAILABLE, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<DeviceBatchResultDto> createDevicesInBatch() {
+        return deviceService.createDevices(batch.iterator());
+    }
+
+    // Served from the devices cache once each device has been fetched.
+    @Benchmark
+    public DeviceDto fetchDeviceById() {
+        return deviceService.fetchDeviceById(randomId());
+    }
+
+    @Benchmark
+    public DeviceDto findDeviceDtoById() {
+        Long id = randomId();
+        return readOnlyTransaction.execute(status -> deviceRepository.findDeviceDtoById(id).orElseThrow());
+    }
+
+    @Benchmark
+    public DeviceDto findDeviceEntityById() {
+        Long id = randomId();
+        return readOnlyTransaction.execute(status -> DeviceMapper.mapToDeviceDto(deviceRepository.findById(id).orElseThrow()));
+    }
+
+    @Benchmark
+    public DevicePageDto fetchDevicePage() {
+        return deviceService.fetchDevices("Brand 1", State.AVAILABLE.name(), 50, null);
+    }
+
+    @Benchmark
+    public DeviceDto updateDeviceState() {
+        Long id = randomId();
+        State state = State.values()[ThreadLocalRandom.current().nextInt(2) * 2];
+        return deviceService.updateDevice(new DeviceDto(null, null, null, state, null), id);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    // Returns devices spread over ten brands and the states a device can be updated between.
+    private static List<DeviceDto> devices(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new DeviceDto(null, "Device " + i, "Brand " + i % 10,
+                        i % 2 == 0 ? State.AVAILABLE : State.INACTIVE, null))
+                .toList();
+    }
+}
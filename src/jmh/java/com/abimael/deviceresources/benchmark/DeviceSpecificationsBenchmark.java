@@ -0,0 +1,56 @@
+package com.abimael.deviceresources.benchmark;
+
+import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.repository.DeviceSpecifications;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the construction of the {@link Specification}s filtering devices,
+ * for each combination of brand and state filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceSpecificationsBenchmark {
+
+    @Param({"", "Apple"})
+    private String brand;
+
+    @Param({"", "AVAILABLE"})
+    private String state;
+
+    // Spellings of the brand, as the BrandDictionary returns them, or null for no brand filter.
+    private List<String> brands;
+
+    @Setup
+    public void setUp() {
+        brands = brand.isEmpty() ? null : List.of(brand);
+    }
+
+    @Benchmark
+    public Specification<Device> byBrandAndState() {
+        return DeviceSpecifications.byBrandAndState(brands, state);
+    }
+
+    @Benchmark
+    public Specification<Device> byBrandAndStateAfterCursor() {
+        return DeviceSpecifications.byBrandAndState(brands, state).and(DeviceSpecifications.idGreaterThan(1L));
+    }
+}
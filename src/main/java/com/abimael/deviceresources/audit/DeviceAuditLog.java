@@ -0,0 +1,232 @@
+package com.abimael.deviceresources.audit;
+
+import com.abimael.deviceresources.constants.DevicesConstants;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceAuditRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Append-only log of every committed device change, written to the {@code device_audit} table
+ * off the request path. Changes are queued in memory and written by a background thread in batches,
+ * flushed once {@code batch-size} records are queued or {@code flush-interval} after the first one.
+ * <p>
+ * When the queue is full, the request committing a change waits up to {@code offer-timeout} for room,
+ * then drops the record and counts it, so a slow or unavailable database delays writes by a bounded
+ * time instead of failing them. Batches that fail to be written are dropped and counted as well.
+ * Records still queued at shutdown are written before the database is closed.
+ */
+@Component
+public class DeviceAuditLog implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceAuditLog.class);
+
+    // Matches the width of device_audit.changed_by and device_audit.client_id in schema.sql
+    private static final int CALLER_MAX_LENGTH = 100;
+
+    // Bounds how long the writer waits for records without checking whether it is stopped.
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final DeviceAuditRepository deviceAuditRepository;
+
+    private final AuditorAware<String> auditorAware;
+
+    private final BlockingQueue<DeviceAuditRecord> queue;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long offerTimeoutNanos;
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public DeviceAuditLog(DeviceAuditRepository deviceAuditRepository,
+                          AuditorAware<String> auditorAware,
+                          @Value("${devices.audit.queue-capacity}") int queueCapacity,
+                          @Value("${devices.audit.batch-size}") int batchSize,
+                          @Value("${devices.audit.flush-interval}") Duration flushInterval,
+                          @Value("${devices.audit.offer-timeout}") Duration offerTimeout) {
+        checkArgument(queueCapacity > 0, "Audit queue capacity must be positive");
+        checkArgument(batchSize > 0, "Audit batch size must be positive");
+        this.deviceAuditRepository = deviceAuditRepository;
+        this.auditorAware = auditorAware;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+    }
+
+    /**
+     * Queues a device change for the audit log, once it is committed.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        Long deviceId = event.after() != null ? event.after().getId() : event.before().getId();
+        HttpServletRequest request = currentRequest();
+        DeviceAuditRecord record = new DeviceAuditRecord(deviceId, event.action().name(), event.before(),
+                event.after(), LocalDateTime.now(), currentCaller(request), clientId(request));
+        try {
+            if (queue.offer(record, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        logger.warn("Audit queue full, dropped {} of device {}", record.action(), deviceId);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("device-audit-writer").daemon().start(this::writeQueued);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server, so the changes of the requests it drains are written too.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devices.audit.queue.size", queue, BlockingQueue::size)
+                .description("Device changes waiting to be written to the audit log")
+                .register(registry);
+        bindRecordCounter(registry, "written", written);
+        bindRecordCounter(registry, "dropped", dropped);
+        bindRecordCounter(registry, "failed", failed);
+    }
+
+    private void bindRecordCounter(MeterRegistry registry, String outcome, LongAdder counter) {
+        FunctionCounter.builder("devices.audit.records", counter, LongAdder::sum)
+                .description("Device changes handed to the audit log")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // Writes batches until stopped, then writes what is left in the queue.
+    private void writeQueued() {
+        List<DeviceAuditRecord> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                DeviceAuditRecord first = queue.poll(MAX_WAIT_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + flushIntervalNanos);
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            write(batch);
+        }
+    }
+
+    // Adds queued records to the batch until it is full or the deadline passes, not waiting once stopped.
+    private void fillBatch(List<DeviceAuditRecord> batch, long deadline) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        while (running && batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            DeviceAuditRecord next = queue.poll(Math.min(remaining, MAX_WAIT_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+        }
+    }
+
+    private void write(List<DeviceAuditRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            deviceAuditRepository.insertAll(batch);
+            written.add(batch.size());
+        } catch (RuntimeException ex) {
+            // Any failure, not only the database rejecting the batch, must not stop the writer.
+            failed.add(batch.size());
+            logger.error("Failed to write {} audit records", batch.size(), ex);
+        }
+    }
+
+    // Returns the request committing the change, or null outside of requests.
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest() : null;
+    }
+
+    // Identifies the caller by its authenticated user or, when not authenticated, its address,
+    // falling back to the auditor of the entities outside of requests. Never trusts a header.
+    private String currentCaller(HttpServletRequest request) {
+        if (request != null) {
+            String caller = StringUtils.firstNonBlank(request.getRemoteUser(), request.getRemoteAddr());
+            if (caller != null) {
+                return StringUtils.left(caller, CALLER_MAX_LENGTH);
+            }
+        }
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    // Returns the client ID the caller claims in its header, kept apart from the caller as it is not verified.
+    private static String clientId(HttpServletRequest request) {
+        return request == null ? null
+                : StringUtils.left(StringUtils.trimToNull(request.getHeader(DevicesConstants.CLIENT_ID_HEADER)),
+                CALLER_MAX_LENGTH);
+    }
+}
@@ -0,0 +1,20 @@
+package com.abimael.deviceresources.audit;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the device audit log: one change of a device, as committed.
+ *
+ * @param deviceId the ID of the changed device
+ * @param action the kind of change: CREATED, UPDATED or DELETED
+ * @param before the device before the change, or null if it was created
+ * @param after the device after the change, or null if it was deleted
+ * @param changedAt when the change was committed
+ * @param changedBy who requested the change: the authenticated user, or the address of the client
+ * @param clientId the ID the client gave itself in its {@code X-Client-Id} header, or null
+ */
+public record DeviceAuditRecord(Long deviceId, String action, DeviceDto before, DeviceDto after,
+                                LocalDateTime changedAt, String changedBy, String clientId) {
+}
@@ -0,0 +1,15 @@
+package com.abimael.deviceresources.changes;
+
+import com.abimael.deviceresources.dto.DeviceChangeDto;
+
+/**
+ * Change buffered by the {@link DeviceChangeLog}, with what every subscriber of the stream needs
+ * computed once when it is appended.
+ *
+ * @param change the change
+ * @param data the change serialized as JSON, sent as the data of its event
+ * @param beforeBrandKey the collation key of the brand of the device before the change, or null if it was created
+ * @param afterBrandKey the collation key of the brand of the device after the change, or null if it was deleted
+ */
+public record DeviceChangeEntry(DeviceChangeDto change, String data, String beforeBrandKey, String afterBrandKey) {
+}
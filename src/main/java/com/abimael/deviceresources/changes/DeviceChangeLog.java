@@ -0,0 +1,160 @@
+package com.abimael.deviceresources.changes;
+
+import com.abimael.deviceresources.dto.DeviceChangeDto;
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.index.CollationKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Ring buffer of the last committed device changes, numbered by a sequence starting at 1.
+ * Readers resume after the last sequence they saw, as long as it is still in the buffer,
+ * and can wait for the next changes without polling. Each change is serialized once when it is appended,
+ * and its event data shared by all the readers.
+ * Sequences start over at startup, so event IDs are prefixed with the startup time to tell them apart.
+ * Assumes this instance is the only one writing devices.
+ */
+@Component
+public class DeviceChangeLog {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition appended = lock.newCondition();
+
+    private final ObjectWriter changeWriter;
+
+    // Change of sequence s at index (s - 1) % capacity.
+    private final DeviceChangeEntry[] changes;
+
+    private long lastSequence;
+
+    public DeviceChangeLog(ObjectMapper objectMapper, @Value("${devices.changes.buffer-size}") int capacity) {
+        checkArgument(capacity > 0, "Change buffer size must be positive");
+        this.changeWriter = objectMapper.writerFor(DeviceChangeDto.class);
+        this.changes = new DeviceChangeEntry[capacity];
+    }
+
+    /**
+     * Appends a device change to the buffer, once it is committed, and wakes up the waiting readers.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            changes[index(sequence)] = entry(new DeviceChangeDto(sequence, event.action().name(),
+                    event.before(), event.after()));
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence of the last change appended.
+     *
+     * @return the last sequence, or 0 if there was no change yet
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the changes following the given sequence, waiting for one to be appended if there is none yet.
+     *
+     * @param after the sequence of the last change already seen
+     * @param timeout how long to wait for a change
+     * @return the following changes ordered by sequence, empty if none was appended in time,
+     *         or null if some of them were already overwritten
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<DeviceChangeEntry> awaitAfter(long after, Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (lastSequence <= after && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (after < lastSequence - changes.length) {
+                return null;
+            }
+            List<DeviceChangeEntry> following = new ArrayList<>((int) Math.max(0, lastSequence - after));
+            for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+                following.add(changes[index(sequence)]);
+            }
+            return following;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Formats the ID of the event carrying the change of the given sequence.
+     *
+     * @param sequence the sequence of the change
+     * @return the event ID
+     */
+    public String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Parses the sequence of a change from the ID of its event.
+     *
+     * @param eventId the event ID, as sent back in {@code Last-Event-ID}
+     * @return the sequence of the change, or null if the ID is not valid or was issued before a restart
+     */
+    public Long parseEventId(String eventId) {
+        String sequence = StringUtils.removeStart(eventId, epoch + "-");
+        if (sequence == null || sequence.equals(eventId)) {
+            return null;
+        }
+        try {
+            long parsed = Long.parseLong(sequence);
+            return parsed >= 0 && parsed <= lastSequence() ? parsed : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) ((sequence - 1) % changes.length);
+    }
+
+    private DeviceChangeEntry entry(DeviceChangeDto change) {
+        try {
+            return new DeviceChangeEntry(change, changeWriter.writeValueAsString(change),
+                    brandKey(change.getBefore()), brandKey(change.getAfter()));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String brandKey(DeviceDto device) {
+        return device == null || device.getBrand() == null ? null : CollationKeys.of(device.getBrand());
+    }
+}
@@ -0,0 +1,148 @@
+package com.abimael.deviceresources.changes;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.index.CollationKeys;
+import com.abimael.deviceresources.util.State;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pushes the changes of the {@link DeviceChangeLog} to subscribers as Server-Sent Events.
+ * Each subscriber is served by its own virtual thread, which waits for changes and sends those
+ * matching its filters, so a slow subscriber only delays itself. Idle streams get a comment
+ * every heartbeat to detect closed connections.
+ * <p>
+ * A subscriber resuming from a {@code Last-Event-ID} still in the buffer gets the changes it missed.
+ * Otherwise, or when it falls behind the buffer, it gets a {@value #RESET_EVENT} event and the stream
+ * restarts from the last change: the subscriber must fetch the devices again to catch up.
+ */
+@Component
+public class DeviceChangeStream implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceChangeStream.class);
+
+    static final String CHANGE_EVENT = "change";
+
+    static final String RESET_EVENT = "reset";
+
+    private final DeviceChangeLog deviceChangeLog;
+
+    private final Duration heartbeat;
+
+    private final Duration timeout;
+
+    private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ThreadFactory streamThreads = Thread.ofVirtual().name("device-changes-", 0).factory();
+
+    public DeviceChangeStream(DeviceChangeLog deviceChangeLog,
+                              @Value("${devices.changes.heartbeat}") Duration heartbeat,
+                              @Value("${devices.changes.timeout}") Duration timeout) {
+        this.deviceChangeLog = deviceChangeLog;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Subscribes to the changes of the devices matching the given brand and/or state,
+     * before or after the change.
+     *
+     * @param brand the brand of the devices to filter by, compared ignoring case and accents as the database
+     *              does, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param lastEventId the ID of the last event received before reconnecting, or null for new changes only
+     * @return the emitter of the stream
+     */
+    public SseEmitter subscribe(String brand, State state, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> emitter.complete());
+        Long resumeAfter = lastEventId == null ? Long.valueOf(deviceChangeLog.lastSequence())
+                : deviceChangeLog.parseEventId(lastEventId);
+        String brandKey = brand == null ? null : CollationKeys.of(brand);
+        streamThreads.newThread(() -> stream(emitter, brandKey, state, resumeAfter)).start();
+        return emitter;
+    }
+
+    /**
+     * Completes the streams still open, so subscribers reconnect to another instance.
+     */
+    @PreDestroy
+    void completeAll() {
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devices.changes.subscribers", subscribers, Set::size)
+                .description("Open streams of device changes")
+                .register(registry);
+    }
+
+    // Sends the matching changes after the given sequence until the stream is completed or the client is gone.
+    private void stream(SseEmitter emitter, String brandKey, State state, Long resumeAfter) {
+        try {
+            long after = resumeAfter == null ? reset(emitter) : resumeAfter;
+            while (subscribers.contains(emitter)) {
+                List<DeviceChangeEntry> changes = deviceChangeLog.awaitAfter(after, heartbeat);
+                if (changes == null) {
+                    after = reset(emitter);
+                } else if (changes.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    for (DeviceChangeEntry change : changes) {
+                        if (matches(change, brandKey, state)) {
+                            emitter.send(SseEmitter.event()
+                                    .id(deviceChangeLog.eventId(change.change().getSequence()))
+                                    .name(CHANGE_EVENT)
+                                    .data(change.data(), MediaType.APPLICATION_JSON));
+                        }
+                    }
+                    after = changes.get(changes.size() - 1).change().getSequence();
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Device change stream closed: {}", ex.getMessage());
+            subscribers.remove(emitter);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    // Tells the subscriber to fetch the devices again, returning the sequence the stream restarts after.
+    private long reset(SseEmitter emitter) throws IOException {
+        long after = deviceChangeLog.lastSequence();
+        emitter.send(SseEmitter.event().id(deviceChangeLog.eventId(after)).name(RESET_EVENT).data(""));
+        return after;
+    }
+
+    // Tells whether the device before or after the change has the brand of the given key and the given state.
+    private static boolean matches(DeviceChangeEntry change, String brandKey, State state) {
+        return matches(change.change().getBefore(), change.beforeBrandKey(), brandKey, state)
+                || matches(change.change().getAfter(), change.afterBrandKey(), brandKey, state);
+    }
+
+    private static boolean matches(DeviceDto device, String deviceBrandKey, String brandKey, State state) {
+        return device != null
+                && (brandKey == null || brandKey.equals(deviceBrandKey))
+                && (state == null || state == device.getState());
+    }
+}
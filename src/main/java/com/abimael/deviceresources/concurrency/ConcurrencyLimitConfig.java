@@ -0,0 +1,44 @@
+package com.abimael.deviceresources.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limits the concurrent requests to the API when {@code devices.concurrency.max-requests} is set,
+ * see the {@code virtual} profile running requests on virtual threads.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "devices.concurrency", name = "max-requests")
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Creates the filter limiting the concurrent requests to the API.
+     *
+     * @param maxRequests the maximum number of requests handled at the same time
+     * @param acquireTimeout how long a request waits for a permit before being rejected
+     * @param meterRegistry the registry of the gauge of available permits
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${devices.concurrency.max-requests}") int maxRequests,
+            @Value("${devices.concurrency.acquire-timeout:1s}") Duration acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(maxRequests, acquireTimeout);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("devices.concurrency.permits.available",
+                        filter, ConcurrencyLimitFilter::availablePermits)
+                .description("Requests to the API that can start without waiting")
+                .register(registry));
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,67 @@
+package com.abimael.deviceresources.concurrency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of requests handled at the same time.
+ * With virtual threads there is no worker pool bounding concurrency anymore, so without
+ * this limit every request would start and queue up on the connection pool until it times out.
+ * Requests waiting longer than the acquire timeout are rejected with 503 and a {@code Retry-After}.
+ * Streaming exports release their permit once the response is handed to the async executor.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutNanos;
+
+    public ConcurrencyLimitFilter(int maxRequests, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!acquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent requests");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the number of requests that can start right now.
+     *
+     * @return the number of available permits
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.abimael.deviceresources.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configures the binary representations of the API, negotiated through the {@code Accept}
+ * and {@code Content-Type} headers alongside JSON: CBOR and Smile.
+ * Both are built from the auto-configured {@link Jackson2ObjectMapperBuilder}, so they
+ * map DTOs exactly as the JSON representation does, with smaller payloads cheaper to encode.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    /**
+     * Creates the converter reading and writing {@code application/cbor}.
+     *
+     * @param builder the object mapper builder configured from the application properties
+     * @return the CBOR converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Creates the converter reading and writing {@code application/x-jackson-smile}.
+     *
+     * @param builder the object mapper builder configured from the application properties
+     * @return the Smile converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.abimael.deviceresources.config;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configures the in-process caches of the application.
+ * Caches are bounded by the estimated heap they retain rather than by entry count,
+ * so their footprint stays predictable within the container memory limit.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DEVICES_CACHE = "devices";
+
+    public static final String DEVICE_LISTS_CACHE = "deviceLists";
+
+    // Estimated size of a cached device without its name: entry, key, DTO, version and the String header
+    // of the name. The brand is not counted, as cached devices share the instance held by the BrandDictionary.
+    private static final int DEVICE_OVERHEAD_BYTES = 136;
+
+    // Estimated size of a cached list of devices without its devices: entry, key and list.
+    private static final int LIST_OVERHEAD_BYTES = 160;
+
+    // Estimated size of a device in a cached list without its name: list slot, DTO, ID, version and the
+    // String header of the name.
+    private static final int LISTED_DEVICE_BYTES = 112;
+
+    /**
+     * Creates the cache manager holding the devices fetched by ID, and the lists of devices
+     * filtered by brand and/or state, keyed by their version.
+     *
+     * @param maxWeight the maximum estimated heap used by the cached devices, in bytes
+     * @param ttl how long a device or a list stays cached after being loaded or updated,
+     *            which bounds how stale it can be when changed by another instance
+     * @param listMaxWeight the maximum estimated heap used by the cached lists, in bytes
+     * @param listIdleTimeout how long a list stays cached without being read
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${devices.cache.max-weight}") long maxWeight,
+                                     @Value("${devices.cache.ttl}") Duration ttl,
+                                     @Value("${devices.list-cache.max-weight}") long listMaxWeight,
+                                     @Value("${devices.list-cache.idle-timeout}") Duration listIdleTimeout) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(DEVICES_CACHE);
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Object key, Object value) -> weigh(value))
+                .expireAfterWrite(ttl)
+                .recordStats());
+        // Lists superseded by a change are no longer read, so they leave when idle. A list is only as fresh as the
+        // version it is keyed by, which misses the changes made by other instances, so it also leaves after the
+        // ttl however often it is read, and is at most that stale.
+        cacheManager.registerCustomCache(DEVICE_LISTS_CACHE, Caffeine.newBuilder()
+                .maximumWeight(listMaxWeight)
+                .weigher((Object key, Object value) -> weigh(value))
+                .expireAfterAccess(listIdleTimeout)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    // Estimates the heap retained by a cached value, in bytes.
+    private static int weigh(Object value) {
+        if (value instanceof DeviceDto device) {
+            return DEVICE_OVERHEAD_BYTES + length(device.getName());
+        }
+        if (value instanceof List<?> devices) {
+            long weight = LIST_OVERHEAD_BYTES;
+            for (Object device : devices) {
+                weight += LISTED_DEVICE_BYTES + length(((DeviceDto) device).getName());
+            }
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+        return DEVICE_OVERHEAD_BYTES;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
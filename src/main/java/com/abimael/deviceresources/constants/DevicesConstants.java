@@ -15,4 +15,23 @@ public final class DevicesConstants {
     public static final String  STATUS_204 = "204";
     public static final String  MESSAGE_204 = "Device deleted successfully";
 
+    public static final String  STATUS_400 = "400";
+
+    public static final String  STATUS_500 = "500";
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    // Media type of the Smile converter, which has no MediaType constant.
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int EXPORT_BATCH_SIZE = 500;
+
+    // Matches hibernate.jdbc.batch_size in application.yml
+    public static final int INSERT_BATCH_SIZE = 100;
+
+    // Devices locked and updated per transaction by a bulk state change.
+    public static final int STATE_CHANGE_BATCH_SIZE = 500;
+
 }
@@ -0,0 +1,115 @@
+package com.abimael.deviceresources.controller;
+
+import com.abimael.deviceresources.config.CacheConfig;
+import com.abimael.deviceresources.dto.CacheStatsDto;
+import com.abimael.deviceresources.dto.ErrorDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing the statistics of the device caches.
+ * The same statistics are published as the {@code cache.gets} and {@code cache.evictions} metrics.
+ */
+@Tag(
+        name = "Cache REST APIs",
+        description = "REST APIs to FETCH the statistics of the device caches"
+)
+@RestController
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Retrieve the statistics of the cache of devices fetched by ID.
+     *
+     * @return a {@link CacheStatsDto} containing the hits, misses and evictions of the cache
+     */
+    @Operation(
+            summary = "Fetch device cache statistics",
+            description = "REST API to fetch the statistics of the cache of devices fetched by id"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/devices/cache/stats")
+    public ResponseEntity<CacheStatsDto> fetchDeviceCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(fetchStats(CacheConfig.DEVICES_CACHE));
+    }
+
+    /**
+     * Retrieve the statistics of the cache of device lists filtered by brand and/or state.
+     *
+     * @return a {@link CacheStatsDto} containing the hits, misses and evictions of the cache
+     */
+    @Operation(
+            summary = "Fetch device list cache statistics",
+            description = "REST API to fetch the statistics of the cache of device lists filtered by brand and/or state"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/devices/lists/cache/stats")
+    public ResponseEntity<CacheStatsDto> fetchDeviceListCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(fetchStats(CacheConfig.DEVICE_LISTS_CACHE));
+    }
+
+    // Reads the statistics of the Caffeine cache with the given name.
+    private CacheStatsDto fetchStats(String name) {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+        Cache<Object, Object> nativeCache = cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        Policy.Eviction<Object, Object> eviction = nativeCache.policy().eviction().orElseThrow();
+        return new CacheStatsDto(
+                cache.getName(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                nativeCache.estimatedSize(),
+                eviction.weightedSize().orElse(0),
+                eviction.getMaximum()
+        );
+    }
+}
@@ -0,0 +1,84 @@
+package com.abimael.deviceresources.controller;
+
+import com.abimael.deviceresources.changes.DeviceChangeStream;
+import com.abimael.deviceresources.dto.DeviceChangeDto;
+import com.abimael.deviceresources.dto.ErrorDto;
+import com.abimael.deviceresources.util.State;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller streaming the changes of devices as Server-Sent Events.
+ */
+@Tag(
+        name = "Change stream REST APIs",
+        description = "REST APIs to SUBSCRIBE to the changes of devices"
+)
+@RestController
+@RequestMapping(path = "/api")
+public class DeviceChangeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceChangeController.class);
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final DeviceChangeStream deviceChangeStream;
+
+    public DeviceChangeController(DeviceChangeStream deviceChangeStream) {
+        this.deviceChangeStream = deviceChangeStream;
+    }
+
+    /**
+     * Stream the changes of the devices matching the given brand and/or state, before or after the change.
+     * Each change is a {@code change} event holding a {@link DeviceChangeDto}; a {@code reset} event
+     * tells the client that changes were missed and the devices must be fetched again.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param lastEventId the ID of the last event received, sent by the client when it reconnects
+     *
+     * @return the stream of changes
+     * @throws IllegalArgumentException if the state is not valid
+     */
+    @Operation(
+            summary = "Stream device changes",
+            description = "REST API to stream the changes of devices as Server-Sent Events, resuming after Last-Event-ID"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(path = "/devices/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeviceChanges(@RequestParam(required = false) String brand,
+                                          @RequestParam(required = false) String state,
+                                          @RequestHeader(name = LAST_EVENT_ID, required = false) String lastEventId) {
+        logger.debug("DeviceChangeController.streamDeviceChanges: {}, {}, {}", brand, state, lastEventId);
+        return deviceChangeStream.subscribe(StringUtils.isNotBlank(brand) ? brand : null,
+                StringUtils.isNotBlank(state) ? State.valueOf(state) : null,
+                StringUtils.isNotBlank(lastEventId) ? lastEventId : null);
+    }
+}
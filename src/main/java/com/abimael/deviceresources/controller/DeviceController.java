@@ -3,10 +3,23 @@ package com.abimael.deviceresources.controller;
 import com.abimael.deviceresources.constants.DevicesConstants;
 import com.abimael.deviceresources.dto.ErrorDto;
 import com.abimael.deviceresources.dto.ResponseDto;
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
 import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DevicePageDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeResultDto;
+import com.abimael.deviceresources.dto.DeviceStatsDto;
 import com.abimael.deviceresources.exception.ResourceNotFoundException;
 import com.abimael.deviceresources.exception.DeviceInUseException;
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.DeviceNotInUseException;
+import com.abimael.deviceresources.exception.PreconditionFailedException;
 import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.util.DeviceETag;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,10 +29,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -27,33 +45,63 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * REST controller for managing devices through CRUD operations.
  * Provides endpoints to create, fetch, update, and delete devices.
+ * Devices are exchanged as JSON, or as CBOR or Smile when negotiated through the
+ * {@code Accept} and {@code Content-Type} headers.
  */
 @Tag(
         name = "CRUD REST APIs for device management",
         description = "CRUD REST APIs to CREATE, UPDATE, FETCH AND DELETE devices"
 )
 @RestController
-@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(path = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        DevicesConstants.APPLICATION_SMILE_VALUE})
 @Validated
 public class DeviceController {
 
     private static final Logger logger = LoggerFactory.getLogger(DeviceController.class);
 
+    // Representations the API produces, in the order they are preferred when the client accepts several.
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, MediaType.valueOf(DevicesConstants.APPLICATION_SMILE_VALUE));
+
     private final IDeviceService iDeviceService;
 
-    public DeviceController(IDeviceService iDeviceService) {
+    private final ObjectWriter deviceWriter;
+
+    private final ObjectReader deviceReader;
+
+    // Whether lists answer with the version of this instance as their ETag, only exact when it is the sole writer.
+    private final boolean listETagsEnabled;
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    public DeviceController(IDeviceService iDeviceService, ObjectMapper objectMapper,
+                            @Value("${devices.list-etags.enabled:true}") boolean listETagsEnabled,
+                            @Qualifier("mvcContentNegotiationManager") ContentNegotiationManager contentNegotiationManager) {
         this.iDeviceService = iDeviceService;
+        this.deviceWriter = objectMapper.writerFor(DeviceDto.class);
+        this.deviceReader = objectMapper.readerFor(DeviceDto.class);
+        this.listETagsEnabled = listETagsEnabled;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
 
     /**
@@ -95,22 +143,78 @@ public class DeviceController {
     }
 
     /**
-     * Retrieve devices from the database filtered by the given brand and/or state.
+     * REST API to create devices in batch from a JSON, CBOR or Smile array.
+     *
+     * @param deviceDtos contains the information of each device
+     * @return ResponseEntity containing the HTTP status code and the result of each device
+     */
+    @Operation(
+            summary = "Create devices in batch",
+            description = "REST API to create devices in batch, from a JSON array or newline-delimited JSON"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(path = "/devices/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            DevicesConstants.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<DeviceBatchResultDto>> createDevices(@RequestBody List<DeviceDto> deviceDtos) {
+        logger.debug("DeviceController.createDevices: {} devices", deviceDtos.size());
+        List<DeviceBatchResultDto> results = iDeviceService.createDevices(deviceDtos.iterator());
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
+
+    /**
+     * REST API to create devices in batch from newline-delimited JSON. Devices are read
+     * from the request as they are inserted, so the request is never held in memory.
+     *
+     * @param inputStream the request body, one JSON device per line
+     * @return ResponseEntity containing the HTTP status code and the result of each device
+     */
+    @PostMapping(path = "/devices/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<DeviceBatchResultDto>> createDevicesFromStream(InputStream inputStream) throws IOException {
+        logger.debug("DeviceController.createDevicesFromStream");
+        try (MappingIterator<DeviceDto> deviceDtos = deviceReader.readValues(inputStream)) {
+            List<DeviceBatchResultDto> results = iDeviceService.createDevices(deviceDtos);
+            return ResponseEntity.status(HttpStatus.OK).body(results);
+        }
+    }
+
+    /**
+     * Retrieve devices from the database filtered by the given brand and/or state, with the
+     * version of the list as the ETag. Answers 304 without reading the devices if the list
+     * did not change since the version given in {@code If-None-Match}. Lists have no ETag
+     * when {@code devices.list-etags.enabled} is off.
      *
      * @param brand the brand of the devices to filter by, or null to include all brands
      * @param state the state of the devices to filter by, or null to include all states
+     * @param webRequest the request, checked against the version of the list
      *
      * @return a list of {@link DeviceDto} containing the matching devices
      */
     @Operation(
             summary = "Fetch device",
-            description = "REST API to fetch devices"
+            description = "REST API to fetch devices, returning the version of the list in the ETag header"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -122,29 +226,277 @@ public class DeviceController {
     )
     @GetMapping("/devices")
     public ResponseEntity<List<DeviceDto>> fetchDevices(@RequestParam(required = false) String brand,
-                                                        @RequestParam(required = false) String state){
+                                                        @RequestParam(required = false) String state,
+                                                        NativeWebRequest webRequest){
         logger.debug("DeviceController.fetchDevices: {}, {}", brand, state);
+        String eTag = listETag(brand, state, webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         List<DeviceDto> devices = iDeviceService.fetchDevices(brand, state);
-        return ResponseEntity.status(HttpStatus.OK).body(devices);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(devices);
+    }
+
+    /**
+     * Retrieve a page of devices filtered by the given brand and/or state, ordered by ID, with the
+     * version of the list as the ETag. Answers 304 without reading the devices if the list
+     * did not change since the version given in {@code If-None-Match}. Pages have no ETag
+     * when {@code devices.list-etags.enabled} is off.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param limit the maximum number of devices to return
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param webRequest the request, checked against the version of the list
+     *
+     * @return a {@link DevicePageDto} containing the matching devices and the cursor of the next page
+     */
+    @Operation(
+            summary = "Fetch device page",
+            description = "REST API to fetch a page of devices using cursor pagination, returning the version of the list in the ETag header"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(path = "/devices", params = "limit")
+    public ResponseEntity<DevicePageDto> fetchDevicePage(@RequestParam(required = false) String brand,
+                                                         @RequestParam(required = false) String state,
+                                                         @RequestParam int limit,
+                                                         @RequestParam(required = false) String after,
+                                                         NativeWebRequest webRequest){
+        logger.debug("DeviceController.fetchDevicePage: {}, {}, {}, {}", brand, state, limit, after);
+        String eTag = listETag(brand, state, webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        DevicePageDto page = iDeviceService.fetchDevices(brand, state, limit, after);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    /**
+     * Search devices whose name contains the given text, ignoring case and accents, filtered by
+     * the given brand and/or state, a page at a time. The ETag is the version of the devices
+     * filtered by brand and/or state, which changes whenever one of them changes.
+     *
+     * @param q the text the device names must contain, of at least 3 characters
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param limit the maximum number of devices to return
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param webRequest the request, checked against the version of the list
+     *
+     * @return a {@link DevicePageDto} containing the matching devices and the cursor of the next page
+     */
+    @Operation(
+            summary = "Search devices",
+            description = "REST API to search devices by a part of their name using cursor pagination"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/devices/search")
+    public ResponseEntity<DevicePageDto> searchDevices(@RequestParam String q,
+                                                       @RequestParam(required = false) String brand,
+                                                       @RequestParam(required = false) String state,
+                                                       @RequestParam(defaultValue = "100") int limit,
+                                                       @RequestParam(required = false) String after,
+                                                       NativeWebRequest webRequest){
+        logger.debug("DeviceController.searchDevices: {}, {}, {}, {}, {}", q, brand, state, limit, after);
+        String eTag = listETag(brand, state, webRequest);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        DevicePageDto page = iDeviceService.searchDevices(q, brand, state, limit, after);
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    /**
+     * Export devices filtered by the given brand and/or state as newline-delimited JSON.
+     * Devices are written to the response as they are read from the database, so the
+     * whole inventory is never held in memory.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     *
+     * @return a stream of {@link DeviceDto}, one JSON document per line
+     */
+    @Operation(
+            summary = "Export devices",
+            description = "REST API to export devices as newline-delimited JSON"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping(path = "/devices/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDevices(@RequestParam(required = false) String brand,
+                                                               @RequestParam(required = false) String state){
+        logger.debug("DeviceController.exportDevices: {}, {}", brand, state);
+        StreamingResponseBody body = outputStream -> {
+            int[] count = {0};
+            iDeviceService.exportDevices(brand, state, device -> {
+                try {
+                    outputStream.write(deviceWriter.writeValueAsBytes(device));
+                    outputStream.write('\n');
+                    if (++count[0] % DevicesConstants.EXPORT_BATCH_SIZE == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Retrieve the IDs of devices in the given state, of the given brand, answered from memory
+     * without querying the database.
+     *
+     * @param brand the brand of the devices, or null to include all brands
+     * @param state the state of the devices, AVAILABLE by default
+     * @param limit the maximum number of IDs to return
+     *
+     * @return the IDs of at most {@code limit} matching devices, in no particular order
+     */
+    @Operation(
+            summary = "Fetch device IDs",
+            description = "REST API to fetch the IDs of devices in a state, of a brand, from the in-memory index"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/devices/ids")
+    public ResponseEntity<long[]> fetchDeviceIds(@RequestParam(required = false) String brand,
+                                                 @RequestParam(defaultValue = "AVAILABLE") String state,
+                                                 @RequestParam(defaultValue = "1") int limit){
+        logger.debug("DeviceController.fetchDeviceIds: {}, {}, {}", brand, state, limit);
+        long[] ids = iDeviceService.fetchDeviceIds(brand, state, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(ids);
     }
 
     /**
-     * Retrieve a device by its ID.
+     * Retrieve the number of devices per state, and per brand and state.
+     *
+     * @return a {@link DeviceStatsDto} containing the device counts
+     */
+    @Operation(
+            summary = "Fetch device statistics",
+            description = "REST API to fetch the number of devices per state, and per brand and state"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @GetMapping("/devices/stats")
+    public ResponseEntity<DeviceStatsDto> fetchDeviceStats(){
+        logger.debug("DeviceController.fetchDeviceStats");
+        DeviceStatsDto stats = iDeviceService.fetchDeviceStats();
+        return ResponseEntity.status(HttpStatus.OK).body(stats);
+    }
+
+    /**
+     * Retrieve a device by its ID, with its version as the ETag. Answers 304 without serializing
+     * the device if its version is the one given in {@code If-None-Match}; the device is read from
+     * the cache, so an unchanged device is usually not read from the database either.
      *
      * @param id the ID of the device to retrieve
+     * @param webRequest the request, checked against the version of the device
      *
      * @return a {@link DeviceDto} containing the matching device
      * @throws ResourceNotFoundException if the device is not found
      */
     @Operation(
             summary = "Fetch device by Id",
-            description = "REST API to fetch a device by id"
+            description = "REST API to fetch a device by id, returning its version in the ETag header"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -155,10 +507,18 @@ public class DeviceController {
     }
     )
     @GetMapping("/devices/{id}")
-    public ResponseEntity<DeviceDto> fetchDeviceById(@PathVariable(name = "id") Long id){
+    public ResponseEntity<DeviceDto> fetchDeviceById(@PathVariable(name = "id") Long id,
+                                                     NativeWebRequest webRequest){
         logger.debug("DeviceController.fetchDeviceById: {}", id);
         DeviceDto device = iDeviceService.fetchDeviceById(id);
-        return ResponseEntity.status(HttpStatus.OK).body(device);
+        String eTag = DeviceETag.format(device.getVersion(), representationOf(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(device);
     }
 
     /**
@@ -198,23 +558,33 @@ public class DeviceController {
     }
 
     /**
-     * Updates an existing device.
+     * Updates an existing device. If an {@code If-Match} header is given, the device is
+     * updated only if its version still matches the entity tag.
      *
      * @param updateDeviceDto contains the updated device information
+     * @param ifMatch the entity tag of the device version to update, or null to update any version
      * @return ResponseEntity containing the HTTP status code and a ResponseDto
      *         with the status code and message
      * @throws ResourceNotFoundException if the device is not found
      * @throws DeviceInUseException if the device is currently in use
+     * @throws PreconditionFailedException if the device version does not match
      */
     @Operation(
             summary = "Update device",
-            description = "REST API to update a device"
+            description = "REST API to update a device, optionally only if its version matches the If-Match header"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "204",
                     description = "HTTP Status NO CONTENT"
             ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "HTTP Status Precondition Failed",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -225,15 +595,186 @@ public class DeviceController {
     }
     )
     @PutMapping("/devices/{id}")
-    public ResponseEntity<ResponseDto> updateDevice(@Valid @RequestBody DeviceDto updateDeviceDto, @PathVariable(name = "id") Long id){
+    public ResponseEntity<ResponseDto> updateDevice(@Valid @RequestBody DeviceDto updateDeviceDto, @PathVariable(name = "id") Long id,
+                                                    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
         logger.debug("DeviceController.updateDevice: {}", updateDeviceDto);
-        DeviceDto deviceUpdated = iDeviceService.updateDevice(updateDeviceDto, id);
+        if (DeviceETag.isWeak(ifMatch)) {
+            throw new PreconditionFailedException("Device", "id", id);
+        }
+        Long version = DeviceETag.parse(ifMatch);
+        DeviceDto deviceUpdated = version == null
+                ? iDeviceService.updateDevice(updateDeviceDto, id)
+                : iDeviceService.updateDevice(updateDeviceDto, id, version);
 
         URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(deviceUpdated.getId()).toUri();
 
         return ResponseEntity.ok()
+                .eTag(DeviceETag.format(deviceUpdated.getVersion()))
                 .header(HttpHeaders.LOCATION, uri.toString())
                 .body(new ResponseDto(DevicesConstants.STATUS_200, DevicesConstants.MESSAGE_200));
     }
+
+    /**
+     * Moves many devices to the same state, given either by their IDs or by a brand and/or state filter.
+     * Devices in use are left unchanged, and devices cannot be put in use this way.
+     *
+     * @param stateChange the new state, and the IDs or the filter of the devices to change
+     *
+     * @return the {@link DeviceStateChangeResultDto} with the number of changed and skipped devices
+     */
+    @Operation(
+            summary = "Change device states",
+            description = "REST API to move many devices, given by ID or by brand and/or state, to the same state"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @PatchMapping("/devices/state")
+    public ResponseEntity<DeviceStateChangeResultDto> changeDeviceStates(@Valid @RequestBody DeviceStateChangeDto stateChange){
+        logger.debug("DeviceController.changeDeviceStates: {} {} {}", stateChange.getState(),
+                stateChange.getBrand(), stateChange.getCurrentState());
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(iDeviceService.changeDeviceStates(stateChange));
+    }
+
+    /**
+     * Claim an available device, of the given brand if any, by putting it in use.
+     * Concurrent checkouts never claim the same device, and never wait on each other.
+     *
+     * @param brand the brand of the device to claim, or null for any brand
+     *
+     * @return the claimed {@link DeviceDto}, with its version as the ETag
+     * @throws DeviceNotAvailableException if no device is available
+     */
+    @Operation(
+            summary = "Check out device",
+            description = "REST API to atomically claim an available device, putting it in use"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "HTTP Status Conflict",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping("/devices/checkout")
+    public ResponseEntity<DeviceDto> checkoutDevice(@RequestParam(required = false) String brand,
+                                                    NativeWebRequest webRequest){
+        logger.debug("DeviceController.checkoutDevice: {}", brand);
+        DeviceDto device = iDeviceService.checkoutDevice(brand);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(DeviceETag.format(device.getVersion(), representationOf(webRequest)))
+                .body(device);
+    }
+
+    /**
+     * Release a device in use, making it available again.
+     *
+     * @param id the ID of the device to release
+     *
+     * @return the released {@link DeviceDto}, with its version as the ETag
+     * @throws ResourceNotFoundException if the device is not found
+     * @throws DeviceNotInUseException if the device is not in use
+     */
+    @Operation(
+            summary = "Release device",
+            description = "REST API to release a device in use, making it available"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "HTTP Status Conflict",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping("/devices/{id}/release")
+    public ResponseEntity<DeviceDto> releaseDevice(@PathVariable(name = "id") Long id,
+                                                   NativeWebRequest webRequest){
+        logger.debug("DeviceController.releaseDevice: {}", id);
+        DeviceDto device = iDeviceService.releaseDevice(id);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(DeviceETag.format(device.getVersion(), representationOf(webRequest)))
+                .body(device);
+    }
+
+    // Returns the ETag of the devices filtered by brand and/or state, or null if list ETags are disabled.
+    private String listETag(String brand, String state, NativeWebRequest webRequest) {
+        return listETagsEnabled
+                ? DeviceETag.format(iDeviceService.fetchDevicesVersion(brand, state), representationOf(webRequest))
+                : null;
+    }
+
+    // Returns the representation the response will be written as, selected among those the client accepts
+    // as the message converters select it: by quality and specificity, then in the order of REPRESENTATIONS.
+    private MediaType representationOf(NativeWebRequest webRequest) {
+        List<MediaType> acceptable = new ArrayList<>();
+        try {
+            for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(webRequest)) {
+                for (MediaType representation : REPRESENTATIONS) {
+                    if (accepted.isCompatibleWith(representation)) {
+                        acceptable.add(representation.copyQualityValue(accepted));
+                    }
+                }
+            }
+        } catch (HttpMediaTypeNotAcceptableException ex) {
+            // Rejected when the response is written
+            return MediaType.APPLICATION_JSON;
+        }
+        return acceptable.isEmpty() ? MediaType.APPLICATION_JSON
+                : MimeTypeUtils.sortBySpecificity(acceptable).get(0).removeQualityValue();
+    }
 }
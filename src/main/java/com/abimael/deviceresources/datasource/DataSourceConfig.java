@@ -0,0 +1,90 @@
+package com.abimael.deviceresources.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configures read replicas when {@code devices.datasource.replica-urls} is set, see the
+ * {@code replica} profile. Read-only transactions are then served by the replicas, and
+ * writes by the primary configured with {@code spring.datasource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "devices.datasource", name = "replica-urls")
+public class DataSourceConfig {
+
+    // Pools of the primary and the replicas, closed with the context as they are not beans.
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    /**
+     * Creates the data source routing between the primary and the replicas.
+     *
+     * @param properties the properties of the primary, also providing the credentials of the replicas
+     * @param replicaUrls the JDBC URLs of the replicas
+     * @param environment the environment providing the {@code spring.datasource.hikari} settings of every pool
+     * @param meterRegistry the registry of the pool metrics, which are not bound automatically
+     *                      since the pools are not beans
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${devices.datasource.replica-urls}") List<String> replicaUrls,
+                                 Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        meterRegistry.ifAvailable(primary::setMetricRegistry);
+        pools.add(primary);
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(replicaUrls.get(i))
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (i + 1));
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.add(replica);
+            pools.add(replica);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+    }
+
+    /**
+     * Closes the pools once the data source is destroyed, which happens first since it depends
+     * on this configuration.
+     */
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    /**
+     * Creates the filter keeping the reads of a client on the primary after it wrote.
+     *
+     * @param window how long the reads of a client stay on the primary after a write
+     * @return the filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${devices.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
@@ -0,0 +1,59 @@
+package com.abimael.deviceresources.datasource;
+
+/**
+ * Holds, for the current thread, the client it serves and whether reads must go to the primary database.
+ * The primary is required for the requests of a client that wrote recently, so it reads its own writes
+ * even when the replicas lag behind the primary.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Sets the client served by the current thread.
+     *
+     * @param client the client
+     */
+    public static void setClient(String client) {
+        CLIENT.set(client);
+    }
+
+    /**
+     * Returns the client served by the current thread.
+     *
+     * @return the client, or null if the thread serves no request
+     */
+    public static String getClient() {
+        return CLIENT.get();
+    }
+
+    /**
+     * Requires the reads of the current thread to go to the primary database.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Returns whether the reads of the current thread must go to the primary database.
+     *
+     * @return true if the primary is required
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * Clears the client and the requirement of the current thread.
+     */
+    public static void clear() {
+        CLIENT.remove();
+        PRIMARY_REQUIRED.remove();
+    }
+}
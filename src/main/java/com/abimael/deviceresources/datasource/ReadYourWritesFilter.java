@@ -0,0 +1,71 @@
+package com.abimael.deviceresources.datasource;
+
+import com.abimael.deviceresources.constants.DevicesConstants;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Keeps the reads of a client on the primary database for a while after it modified a device,
+ * so it does not read stale data from a lagging replica.
+ * The write is recorded as soon as the change of the device is committed, before the response
+ * reaches the client, so the next request of the client cannot arrive before it.
+ * Clients are identified by the {@value DevicesConstants#CLIENT_ID_HEADER} header,
+ * or by their remote address when the header is missing.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int MAX_RECENT_WRITERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_RECENT_WRITERS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        ReadYourWritesContext.setClient(client);
+        if (recentWriters.getIfPresent(client) != null) {
+            ReadYourWritesContext.requirePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWritesContext.clear();
+        }
+    }
+
+    /**
+     * Records a write of the client served by the current thread, once the change is committed.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        String client = ReadYourWritesContext.getClient();
+        if (client != null) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        String client = request.getHeader(DevicesConstants.CLIENT_ID_HEADER);
+        return StringUtils.isNotBlank(client) ? client : request.getRemoteAddr();
+    }
+}
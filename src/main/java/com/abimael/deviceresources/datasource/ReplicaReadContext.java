@@ -0,0 +1,33 @@
+package com.abimael.deviceresources.datasource;
+
+/**
+ * Holds, for the current thread, whether its last connection was routed to a replica.
+ * Results read from a replica may lag behind the primary, so they must not be kept in caches
+ * shared with the clients reading their own writes.
+ */
+public final class ReplicaReadContext {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private ReplicaReadContext() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Records where the last connection of the current thread was routed.
+     *
+     * @param replica true if it was routed to a replica, false if to the primary
+     */
+    static void record(boolean replica) {
+        REPLICA_READ.set(replica);
+    }
+
+    /**
+     * Returns whether the last connection of the current thread was routed to a replica.
+     *
+     * @return true if it was routed to a replica
+     */
+    public static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(REPLICA_READ.get());
+    }
+}
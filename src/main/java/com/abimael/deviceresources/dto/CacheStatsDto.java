@@ -0,0 +1,57 @@
+package com.abimael.deviceresources.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+/**
+ * {@code CacheStatsDto} reports the statistics of an in-process cache since the application started.
+ */
+@Schema(
+        name = "CacheStats",
+        description = "Cache statistics"
+)
+@Data @AllArgsConstructor
+public class CacheStatsDto {
+
+    @Schema(
+            description = "Name of the cache"
+    )
+    private String name;
+
+    @Schema(
+            description = "Number of lookups served from the cache"
+    )
+    private long hitCount;
+
+    @Schema(
+            description = "Number of lookups that had to load the value"
+    )
+    private long missCount;
+
+    @Schema(
+            description = "Ratio of lookups served from the cache"
+    )
+    private double hitRate;
+
+    @Schema(
+            description = "Number of entries evicted to respect the maximum weight"
+    )
+    private long evictionCount;
+
+    @Schema(
+            description = "Approximate number of cached entries"
+    )
+    private long estimatedSize;
+
+    @Schema(
+            description = "Estimated heap retained by the cached entries, in bytes"
+    )
+    private long weightedSize;
+
+    @Schema(
+            description = "Maximum estimated heap the cached entries can retain, in bytes"
+    )
+    private long maximumWeight;
+
+}
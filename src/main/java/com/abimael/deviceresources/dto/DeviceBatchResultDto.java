@@ -0,0 +1,38 @@
+package com.abimael.deviceresources.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+/**
+ * {@code DeviceBatchResultDto} reports the outcome of one device of a batch creation request,
+ * identified by its position in the request.
+ */
+@Schema(
+        name = "DeviceBatchResult",
+        description = "Result of one device of a batch creation"
+)
+@Data @AllArgsConstructor
+public class DeviceBatchResultDto {
+
+    @Schema(
+            description = "Position of the device in the request, starting at 0"
+    )
+    private int index;
+
+    @Schema(
+            description = "Status code"
+    )
+    private String code;
+
+    @Schema(
+            description = "Status message"
+    )
+    private String message;
+
+    @Schema(
+            description = "ID of the created device, or null if it was not created"
+    )
+    private Long id;
+
+}
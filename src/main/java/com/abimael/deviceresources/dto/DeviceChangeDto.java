@@ -0,0 +1,38 @@
+package com.abimael.deviceresources.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * {@code DeviceChangeDto} describes one committed change of a device, as pushed by the change stream.
+ */
+@Schema(
+        name = "DeviceChange",
+        description = "Change of a device"
+)
+@Data @AllArgsConstructor
+public class DeviceChangeDto {
+
+    @Schema(
+            description = "Sequence number of the change, also sent as the event ID", example = "42"
+    )
+    private long sequence;
+
+    @Schema(
+            description = "Kind of change", example = "UPDATED", allowableValues = {"CREATED", "UPDATED", "DELETED"}
+    )
+    private String action;
+
+    @Schema(
+            description = "Device before the change, absent if it was created; "
+                    + "a device updated or deleted by ID may carry no name, when it was not cached"
+    )
+    private DeviceDto before;
+
+    @Schema(
+            description = "Device after the change, absent if it was deleted"
+    )
+    private DeviceDto after;
+
+}
@@ -6,7 +6,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * {@code DeviceDto} represents the data transfer object for device information.
@@ -14,6 +16,8 @@ import lombok.Data;
  * The {@code state} field must match one of the predefined values (AVAILABLE, IN_USE, INACTIVE).
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(
         name = "Device",
         description = "Device object"
@@ -48,4 +52,11 @@ public class DeviceDto {
     )
     @NotNull(message = "Device state cannot be null")
     private State state;
+
+    @Schema(
+            description = "Device version, incremented on every update and returned as the ETag",
+            accessMode = Schema.AccessMode.READ_ONLY
+    )
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
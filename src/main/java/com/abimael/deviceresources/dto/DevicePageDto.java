@@ -0,0 +1,31 @@
+package com.abimael.deviceresources.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * {@code DevicePageDto} represents a page of devices fetched with cursor pagination.
+ * The {@code nextCursor} is passed back as the {@code after} parameter to fetch the next page,
+ * and is null when there are no more devices.
+ */
+@Schema(
+        name = "DevicePage",
+        description = "Page of devices"
+)
+@Data @AllArgsConstructor
+public class DevicePageDto {
+
+    @Schema(
+            description = "Devices of the page, ordered by ID"
+    )
+    private List<DeviceDto> devices;
+
+    @Schema(
+            description = "Opaque cursor of the next page, or null if this is the last page"
+    )
+    private String nextCursor;
+
+}
@@ -0,0 +1,51 @@
+package com.abimael.deviceresources.dto;
+
+import com.abimael.deviceresources.util.State;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * {@code DeviceStateChangeDto} represents a request to move many devices to the same state.
+ * The devices are given either by their IDs, or by a brand and/or current state filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        name = "DeviceStateChange",
+        description = "Change of the state of many devices"
+)
+public class DeviceStateChangeDto {
+
+    @Schema(
+            description = "State to move the devices to",
+            example = "INACTIVE",
+            allowableValues = {"AVAILABLE", "INACTIVE"}
+    )
+    @NotNull(message = "Device state cannot be null")
+    private State state;
+
+    @Schema(
+            description = "IDs of the devices to change, if not filtered by brand and/or state"
+    )
+    @Size(max = 100000, message = "At most 100000 device IDs can be changed at once")
+    private List<Long> ids;
+
+    @Schema(
+            description = "Brand of the devices to change, if not given by ID"
+    )
+    private String brand;
+
+    @Schema(
+            description = "Current state of the devices to change, if not given by ID",
+            example = "AVAILABLE",
+            allowableValues = {"AVAILABLE", "IN_USE", "INACTIVE"}
+    )
+    private State currentState;
+}
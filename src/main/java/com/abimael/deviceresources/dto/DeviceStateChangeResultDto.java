@@ -0,0 +1,28 @@
+package com.abimael.deviceresources.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * {@code DeviceStateChangeResultDto} reports how many devices a state change moved, and how many
+ * of the distinct requested IDs it left unchanged.
+ */
+@Schema(
+        name = "DeviceStateChangeResult",
+        description = "Result of a change of the state of many devices"
+)
+@Data @AllArgsConstructor
+public class DeviceStateChangeResultDto {
+
+    @Schema(
+            description = "Number of devices moved to the new state"
+    )
+    private long updated;
+
+    @Schema(
+            description = "Number of distinct requested IDs left unchanged, because the device does not exist, "
+                    + "is in use or is already in the new state; always 0 when filtered by brand and/or state"
+    )
+    private long skipped;
+}
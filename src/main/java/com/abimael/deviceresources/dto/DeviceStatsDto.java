@@ -0,0 +1,35 @@
+package com.abimael.deviceresources.dto;
+
+import com.abimael.deviceresources.util.State;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * {@code DeviceStatsDto} reports the number of devices per state, and per brand and state.
+ */
+@Schema(
+        name = "DeviceStats",
+        description = "Device counts"
+)
+@Data @AllArgsConstructor
+public class DeviceStatsDto {
+
+    @Schema(
+            description = "Total number of devices"
+    )
+    private long total;
+
+    @Schema(
+            description = "Number of devices per state"
+    )
+    private Map<State, Long> byState;
+
+    @Schema(
+            description = "Number of devices per brand and state"
+    )
+    private Map<String, Map<State, Long>> byBrandAndState;
+
+}
@@ -0,0 +1,32 @@
+package com.abimael.deviceresources.entity;
+
+import com.abimael.deviceresources.index.BrandDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores the brand of a {@link Device} as the ID of the brand in the {@code brand} lookup table,
+ * translated by the {@link BrandDictionary} without querying the database, so brands must be stored
+ * before the transaction writing them starts, see {@link BrandDictionary#idOf}.
+ * Also applies to query parameters compared with the brand. Created by Spring, through the bean
+ * container Spring Boot configures for Hibernate, so the dictionary can be injected.
+ */
+@Converter
+public class BrandConverter implements AttributeConverter<String, Integer> {
+
+    private final BrandDictionary brandDictionary;
+
+    public BrandConverter(BrandDictionary brandDictionary) {
+        this.brandDictionary = brandDictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String brand) {
+        return brand == null ? null : brandDictionary.knownIdOf(brand);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : brandDictionary.nameOf(id);
+    }
+}
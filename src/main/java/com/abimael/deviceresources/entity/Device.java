@@ -5,9 +5,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -22,18 +25,28 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class Device extends BaseEntity {
 
+    // A pooled generator hands out blocks of IDs so inserts can be batched, which IDENTITY prevents.
+    // MySQL has no sequences, so Hibernate emulates this one with the device_seq table.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     @Column(name = "device_id", updatable = false, nullable = false)
     private Long id;
 
     @Column(name = "device_name", nullable = false)
     private String name;
 
-    @Column(name = "device_brand", nullable = false)
+    // Stored as the ID of the brand, so rows and indexes hold 4 bytes instead of the brand itself.
+    @Convert(converter = BrandConverter.class)
+    @Column(name = "device_brand_id", nullable = false)
     private String brand;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "device_state", nullable = false)
     private State state;
+
+    // Incremented on every update, so concurrent updates of the same device are detected instead of lost.
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
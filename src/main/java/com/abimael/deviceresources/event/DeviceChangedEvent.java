@@ -0,0 +1,52 @@
+package com.abimael.deviceresources.event;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Event published after a device is created, updated or deleted.
+ * Carries the device as it was before and after the change, so listeners
+ * maintaining in-memory views can adjust them without querying the database.
+ *
+ * @param action the kind of change
+ * @param before the device before the change, or null if it was created
+ * @param after the device after the change, or null if it was deleted
+ */
+public record DeviceChangedEvent(Action action, DeviceDto before, DeviceDto after) {
+
+    /**
+     * Kind of change of a device.
+     */
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * Creates the event of a change, which must have the device before it unless it is a creation,
+     * and the device after it unless it is a deletion.
+     *
+     * @throws IllegalArgumentException if the devices before and after the change do not fit its action
+     */
+    public DeviceChangedEvent {
+        checkArgument(action != null, "A device change needs an action");
+        boolean consistent = switch (action) {
+            case CREATED -> before == null && after != null;
+            case UPDATED -> before != null && after != null;
+            case DELETED -> before != null && after == null;
+        };
+        checkArgument(consistent, "A %s device change does not fit the devices before and after it", action);
+    }
+
+    public static DeviceChangedEvent created(DeviceDto after) {
+        return new DeviceChangedEvent(Action.CREATED, null, after);
+    }
+
+    public static DeviceChangedEvent updated(DeviceDto before, DeviceDto after) {
+        return new DeviceChangedEvent(Action.UPDATED, before, after);
+    }
+
+    public static DeviceChangedEvent deleted(DeviceDto before) {
+        return new DeviceChangedEvent(Action.DELETED, before, null);
+    }
+}
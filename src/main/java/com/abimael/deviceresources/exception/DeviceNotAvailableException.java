@@ -0,0 +1,11 @@
+package com.abimael.deviceresources.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class DeviceNotAvailableException extends RuntimeException {
+    public DeviceNotAvailableException(String resourceName, String fieldName, String fieldValue) {
+        super(String.format("No %s available with the given input %s: '%s'", resourceName, fieldName, fieldValue));
+    }
+}
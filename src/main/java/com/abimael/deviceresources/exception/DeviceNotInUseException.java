@@ -0,0 +1,11 @@
+package com.abimael.deviceresources.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class DeviceNotInUseException extends RuntimeException {
+    public DeviceNotInUseException(String resourceName, String fieldName, Long fieldValue) {
+        super(String.format("%s with the given input %s: '%s', is not in use, and cannot be released", resourceName, fieldName, fieldValue));
+    }
+}
@@ -102,4 +102,58 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
         return new ResponseEntity<>(errorDTO, HttpStatus.FORBIDDEN);
     }
+
+    /**
+     * Handle PreconditionFailedException and return a JSON response containing information about the error.
+     * @param exception the exception to be handled
+     * @param webRequest the current web request
+     * @return a ResponseEntity containing the error response
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorDto> handlePreconditionFailedException(PreconditionFailedException exception,
+                                                                      WebRequest webRequest) {
+        ErrorDto errorDTO = new ErrorDto(
+                webRequest.getDescription(false),
+                HttpStatus.PRECONDITION_FAILED,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handle DeviceNotAvailableException and return a JSON response containing information about the error.
+     * @param exception the exception to be handled
+     * @param webRequest the current web request
+     * @return a ResponseEntity containing the error response
+     */
+    @ExceptionHandler(DeviceNotAvailableException.class)
+    public ResponseEntity<ErrorDto> handleDeviceNotAvailableException(DeviceNotAvailableException exception,
+                                                                      WebRequest webRequest) {
+        ErrorDto errorDTO = new ErrorDto(
+                webRequest.getDescription(false),
+                HttpStatus.CONFLICT,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorDTO, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle DeviceNotInUseException and return a JSON response containing information about the error.
+     * @param exception the exception to be handled
+     * @param webRequest the current web request
+     * @return a ResponseEntity containing the error response
+     */
+    @ExceptionHandler(DeviceNotInUseException.class)
+    public ResponseEntity<ErrorDto> handleDeviceNotInUseException(DeviceNotInUseException exception,
+                                                                  WebRequest webRequest) {
+        ErrorDto errorDTO = new ErrorDto(
+                webRequest.getDescription(false),
+                HttpStatus.CONFLICT,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorDTO, HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,11 @@
+package com.abimael.deviceresources.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String resourceName, String fieldName, Long fieldValue) {
+        super(String.format("%s with the given input %s: '%s', has been modified, and its version does not match", resourceName, fieldName, fieldValue));
+    }
+}
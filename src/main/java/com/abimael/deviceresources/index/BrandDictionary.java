@@ -0,0 +1,206 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.repository.Brand;
+import com.abimael.deviceresources.repository.BrandRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the {@code brand} lookup table, mapping each brand to the integer key devices
+ * store instead of the brand itself, and back.
+ * Brands read back are always the same {@code String} instance, so devices of the same brand share
+ * it rather than each holding a copy. Lookups take no lock; only storing a new brand does.
+ * Brands are stored through {@link #idOf} before the transaction writing a device starts, so the
+ * {@link com.abimael.deviceresources.entity.BrandConverter} only maps known brands and never queries
+ * the database, which it must not do while a result set is streamed or a flush holds the connection.
+ * Loaded from the database at startup, and extended as new brands are stored, by this instance or another:
+ * brands stored elsewhere are loaded again on a lookup miss, and at most once per {@code refresh-interval}
+ * when spellings are looked up, rather than checking the brand table on every lookup.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class BrandDictionary {
+
+    private final BrandRepository brandRepository;
+
+    private final long refreshIntervalNanos;
+
+    // Taken to store a brand, rather than a monitor, so virtual threads waiting for it are not pinned.
+    private final Lock registration = new ReentrantLock();
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // Brands indexed by ID, replaced by a larger copy when an ID does not fit.
+    private volatile String[] names = new String[256];
+
+    // Spellings of each brand key, replaced by a new list when a spelling is added, see CollationKeys.
+    private final ConcurrentMap<String, List<String>> spellings = new ConcurrentHashMap<>();
+
+    private volatile long loadedAtNanos;
+
+    // Set while a load missed by nameOf runs in the background.
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    public BrandDictionary(BrandRepository brandRepository,
+                           @Value("${devices.brands.refresh-interval:1s}") Duration refreshInterval) {
+        this.brandRepository = brandRepository;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Loads the brands stored in the database, skipping those already loaded.
+     */
+    @PostConstruct
+    void load() {
+        registration.lock();
+        try {
+            loadMissing();
+        } finally {
+            registration.unlock();
+        }
+    }
+
+    /**
+     * Returns the ID of the brand spelled exactly as given, storing the brand if it is new.
+     * A new brand is stored in a transaction of its own, so this must be called before the transaction
+     * writing the device starts, leaving the caller with a single connection at a time.
+     *
+     * @param brand the brand
+     * @return the ID of the brand
+     */
+    public int idOf(String brand) {
+        Integer id = ids.get(brand);
+        if (id != null) {
+            return id;
+        }
+        registration.lock();
+        try {
+            id = ids.get(brand);
+            if (id == null) {
+                // Also returns the ID of a brand stored by another instance since the last load.
+                id = brandRepository.insertIfAbsent(brand);
+                register(id, brand);
+            }
+            return id;
+        } finally {
+            registration.unlock();
+        }
+    }
+
+    /**
+     * Returns the ID of a brand already stored, spelled exactly as given, without querying the database.
+     *
+     * @param brand the brand
+     * @return the ID of the brand
+     * @throws IllegalStateException if the brand was not stored through {@link #idOf} first
+     */
+    public int knownIdOf(String brand) {
+        Integer id = ids.get(brand);
+        if (id == null) {
+            throw new IllegalStateException("Brand " + brand + " is not stored");
+        }
+        return id;
+    }
+
+    /**
+     * Returns the brand with the given ID, without querying the database.
+     * Brands are loaded again in the background when the ID is missing, so a brand stored by
+     * another instance since the last load is found once that load completes.
+     *
+     * @param id the ID of the brand
+     * @return the brand, always the same instance for the same ID
+     * @throws IllegalStateException if no brand with the given ID is loaded
+     */
+    public String nameOf(int id) {
+        String[] current = names;
+        String name = id < current.length ? current[id] : null;
+        if (name == null) {
+            loadInBackground();
+            throw new IllegalStateException("Brand " + id + " is not loaded");
+        }
+        return name;
+    }
+
+    /**
+     * Returns the shared instance of the given brand, without querying the database.
+     *
+     * @param brand the brand, or null
+     * @return the brand, always the same instance for the same stored spelling, the given brand if it is
+     *         not stored, or null if the brand is null
+     */
+    public String intern(String brand) {
+        Integer id = brand == null ? null : ids.get(brand);
+        return id == null ? brand : nameOf(id);
+    }
+
+    /**
+     * Returns the stored spellings of the given brand, compared as the database collation does,
+     * which filtering by brand must match now that devices only store brand IDs.
+     * Brands are loaded again first when the last load is older than the refresh interval, by a single
+     * caller while the others use the loaded spellings, so a spelling stored by another instance is found
+     * within that interval.
+     *
+     * @param brand the brand
+     * @return the stored spellings equal to the brand ignoring case and accents, empty if there is none
+     */
+    public List<String> spellingsOf(String brand) {
+        if (System.nanoTime() - loadedAtNanos >= refreshIntervalNanos && registration.tryLock()) {
+            try {
+                loadMissing();
+            } finally {
+                registration.unlock();
+            }
+        }
+        return spellings.getOrDefault(CollationKeys.of(brand), List.of());
+    }
+
+    // Loads the brands not loaded yet. Must be called holding the registration lock.
+    private void loadMissing() {
+        for (Brand brand : brandRepository.findAll()) {
+            if (!ids.containsKey(brand.name())) {
+                register(brand.id(), brand.name());
+            }
+        }
+        loadedAtNanos = System.nanoTime();
+    }
+
+    // Loads the brands on a thread and connection of its own, unless already loading, as the caller may hold
+    // the connection with a result set being read.
+    private void loadInBackground() {
+        if (loading.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("brand-loader").start(() -> {
+                try {
+                    load();
+                } finally {
+                    loading.set(false);
+                }
+            });
+        }
+    }
+
+    // Adds a brand read from or written to the database. Must be called holding the registration lock.
+    private void register(int id, String name) {
+        String[] current = names;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        }
+        current[id] = name;
+        names = current;
+        ids.put(name, id);
+        List<String> keySpellings = new ArrayList<>(spellings.getOrDefault(CollationKeys.of(name), List.of()));
+        keySpellings.add(name);
+        spellings.put(CollationKeys.of(name), List.copyOf(keySpellings));
+    }
+}
@@ -0,0 +1,26 @@
+package com.abimael.deviceresources.index;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Keys grouping the brands, or names, the database considers equal when filtering by them.
+ */
+public final class CollationKeys {
+
+    private CollationKeys() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Folds case and accents of the given brand or name, as the database collation does.
+     *
+     * @param value the brand or name
+     * @return the key of the brand or name
+     */
+    public static String of(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.util.State;
+
+/**
+ * Key of a cached list of devices filtered by brand and/or state, holding the version of the list,
+ * so a list cached before one of its devices changed is never found again.
+ *
+ * @param brandKey the brand of the devices as the database compares it, or null for all brands
+ * @param state the state of the devices, or null for all states
+ * @param version the version of the list, see {@link DeviceListVersions#versionOf(String, State)}
+ */
+public record DeviceListKey(String brandKey, State state, String version) {
+}
@@ -0,0 +1,92 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.util.State;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory versions of the device lists, bumped on every committed {@link DeviceChangedEvent}.
+ * Keeps one version for all devices, one per state and one per brand, each changing whenever a
+ * device entering or leaving the matching list changes, so an unchanged version means an unchanged
+ * list. Versions start over at startup, and are prefixed with the startup time to never repeat.
+ * Only changes committed by this instance are seen, so versions are exact only while it is the only
+ * one writing devices: lists keyed by them expire after the cache ttl, and are not given an ETag
+ * when {@code devices.list-etags.enabled} is off, as for several instances or replicas.
+ */
+@Component
+public class DeviceListVersions {
+
+    private static final State[] STATES = State.values();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong allVersion = new AtomicLong();
+
+    // Versions of each state, indexed by state ordinal.
+    private final AtomicLong[] stateVersions = new AtomicLong[STATES.length];
+
+    // Versions of each brand, keyed by brand as the database compares them, see CollationKeys.
+    private final ConcurrentMap<String, AtomicLong> brandVersions = new ConcurrentHashMap<>();
+
+    public DeviceListVersions() {
+        for (int i = 0; i < stateVersions.length; i++) {
+            stateVersions[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Bumps the versions of the lists the changed device belonged to, or belongs to, once it is committed.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        bump(event.before());
+        bump(event.after());
+        allVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the version of the list of devices filtered by the given brand and/or state.
+     * Lists filtered by both share the version of the brand, which changes at least as often.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @return an opaque version, equal for two calls only if the list did not change in between
+     */
+    public String versionOf(String brand, State state) {
+        if (brand != null) {
+            AtomicLong version = brandVersions.get(CollationKeys.of(brand));
+            return epoch + "-b" + (version == null ? 0 : version.get());
+        }
+        if (state != null) {
+            return epoch + "-s" + stateVersions[state.ordinal()].get();
+        }
+        return epoch + "-a" + allVersion.get();
+    }
+
+    /**
+     * Returns the key of the list of devices filtered by the given brand and/or state, holding its
+     * current version, so a list cached under the key is never found again once the list changes.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @return the key of the list, equal for two calls only if the list did not change in between
+     */
+    public DeviceListKey keyOf(String brand, State state) {
+        return new DeviceListKey(brand != null ? CollationKeys.of(brand) : null, state, versionOf(brand, state));
+    }
+
+    private void bump(DeviceDto device) {
+        if (device != null) {
+            stateVersions[device.getState().ordinal()].incrementAndGet();
+            brandVersions.computeIfAbsent(CollationKeys.of(device.getBrand()), key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+}
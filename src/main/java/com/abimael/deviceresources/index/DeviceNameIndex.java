@@ -0,0 +1,247 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * In-memory trigram index of device names, finding the devices whose name contains a given text,
+ * ignoring case and accents as the database does, without scanning every name.
+ * Keeps the IDs of the devices whose name contains each sequence of three characters, in ascending
+ * order, so a search walks the shortest of the lists of the text from the cursor on, and stops as soon
+ * as a page is filled with devices whose name, brand and state match.
+ * Each device takes its folded name, about 40 bytes of slots, and 4 bytes per character of its name
+ * in the lists. Device IDs must fit in an int, as {@code device_id} does.
+ * Seeded from the database at startup, then kept current on every committed {@link DeviceChangedEvent},
+ * applied by row version through {@link DeviceVersions}, as listeners see them in no guaranteed order.
+ * Assumes this instance is the only one writing devices.
+ */
+@Component
+public class DeviceNameIndex {
+
+    /** Minimum length of a searched text, the length of the sequences indexed. */
+    public static final int MIN_TEXT_LENGTH = 3;
+
+    private static final int MISSING = -1;
+
+    private final DeviceRepository deviceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot of each device in the arrays below.
+    private final LongIntHashMap slots = new LongIntHashMap(1024);
+
+    private final DeviceVersions versions = new DeviceVersions();
+
+    // Folded name, brand key and state ordinal of the device in each slot.
+    private String[] names = new String[1024];
+
+    private String[] brandKeys = new String[1024];
+
+    private byte[] states = new byte[1024];
+
+    // Slots freed by deleted devices, reused before new ones.
+    private int[] freeSlots = new int[16];
+
+    private int freeCount;
+
+    private int slotCount;
+
+    // Shared instance of each brand key, so slots of the same brand hold the same String.
+    private final Map<String, String> brandKeyInstances = new HashMap<>();
+
+    // IDs of the devices whose folded name contains each trigram, keyed by its three chars packed in a long.
+    private final Map<Long, SortedIntList> idsByTrigram = new HashMap<>();
+
+    public DeviceNameIndex(DeviceRepository deviceRepository, PlatformTransactionManager transactionManager) {
+        this.deviceRepository = deviceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Seeds the index with the devices stored in the database.
+     */
+    @PostConstruct
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<DeviceDto> devices = deviceRepository.streamDeviceDtos()) {
+                devices.forEach(this::put);
+            }
+        });
+    }
+
+    /**
+     * Updates the index with a device change, once it is committed, unless a newer change was applied already.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.after() != null) {
+            put(event.after());
+        } else if (event.before() != null) {
+            remove(event.before().getId(), event.before().getVersion());
+        }
+    }
+
+    /**
+     * Returns the IDs of the devices whose name contains the given text, ignoring case and accents,
+     * of the given brand and state, in ascending order after the given ID.
+     * Costs about the number of devices containing the rarest trigram of the text that are walked
+     * until the page fills, rather than the number of devices.
+     *
+     * @param text the text the name must contain, of at least {@link #MIN_TEXT_LENGTH} characters
+     * @param brand the brand of the devices, compared as the database does, or null to include all brands
+     * @param state the state of the devices, or null to include all states
+     * @param afterId the ID after which devices are returned
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of at most {@code limit} matching devices, in ascending order
+     * @throws IllegalArgumentException if the text is too short
+     */
+    public long[] search(String text, String brand, State state, long afterId, int limit) {
+        String folded = CollationKeys.of(text);
+        checkArgument(folded.length() >= MIN_TEXT_LENGTH,
+                "Search text must have at least %s characters", MIN_TEXT_LENGTH);
+        String brandKey = brand != null ? CollationKeys.of(brand) : null;
+        lock.readLock().lock();
+        try {
+            SortedIntList rarest = null;
+            for (int i = 0; i + MIN_TEXT_LENGTH <= folded.length(); i++) {
+                SortedIntList ids = idsByTrigram.get(trigram(folded, i));
+                if (ids == null) {
+                    return new long[0];
+                }
+                if (rarest == null || ids.size() < rarest.size()) {
+                    rarest = ids;
+                }
+            }
+            long[] found = new long[limit];
+            int count = 0;
+            for (int i = rarest.indexAfter(afterId); i < rarest.size() && count < limit; i++) {
+                int id = rarest.get(i);
+                int slot = slots.get(id, MISSING);
+                if ((state == null || states[slot] == state.ordinal())
+                        && (brandKey == null || brandKey.equals(brandKeys[slot]))
+                        && names[slot].contains(folded)) {
+                    found[count++] = id;
+                }
+            }
+            return count == limit ? found : Arrays.copyOf(found, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed devices.
+     *
+     * @return the number of devices
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(DeviceDto device) {
+        int id = Math.toIntExact(device.getId());
+        String name = CollationKeys.of(device.getName());
+        String brandKey = CollationKeys.of(device.getBrand());
+        lock.writeLock().lock();
+        try {
+            if (!versions.advance(id, device.getVersion())) {
+                return;
+            }
+            int slot = slots.get(id, MISSING);
+            if (slot == MISSING) {
+                slot = allocateSlot();
+                slots.put(id, slot, MISSING);
+                addTrigrams(name, id);
+            } else if (!names[slot].equals(name)) {
+                removeTrigrams(names[slot], id);
+                addTrigrams(name, id);
+            }
+            names[slot] = name;
+            brandKeys[slot] = brandKeyInstances.computeIfAbsent(brandKey, key -> key);
+            states[slot] = (byte) device.getState().ordinal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id, Long version) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.delete(id, version)) {
+                return;
+            }
+            int slot = slots.remove(id, MISSING);
+            if (slot != MISSING) {
+                removeTrigrams(names[slot], (int) id);
+                names[slot] = null;
+                brandKeys[slot] = null;
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == names.length) {
+            int capacity = slotCount + (slotCount >> 1);
+            names = Arrays.copyOf(names, capacity);
+            brandKeys = Arrays.copyOf(brandKeys, capacity);
+            states = Arrays.copyOf(states, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void addTrigrams(String name, int id) {
+        for (int i = 0; i + MIN_TEXT_LENGTH <= name.length(); i++) {
+            idsByTrigram.computeIfAbsent(trigram(name, i), key -> new SortedIntList(4)).add(id);
+        }
+    }
+
+    private void removeTrigrams(String name, int id) {
+        for (int i = 0; i + MIN_TEXT_LENGTH <= name.length(); i++) {
+            long trigram = trigram(name, i);
+            SortedIntList ids = idsByTrigram.get(trigram);
+            if (ids != null && ids.remove(id) && ids.size() == 0) {
+                idsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    // Packs the three chars of the text from the given index in a long.
+    private static long trigram(String text, int index) {
+        return (long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16 | text.charAt(index + 2);
+    }
+}
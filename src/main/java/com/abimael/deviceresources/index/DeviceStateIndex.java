@@ -0,0 +1,229 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceBrandState;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the brand and state of every device, keyed by device ID, and of the IDs of
+ * the devices of each brand and state.
+ * Seeded from the database at startup, then kept current on every committed {@link DeviceChangedEvent},
+ * so devices of a brand in a given state are found without querying the database.
+ * Changes are applied by row version, as listeners see them in no guaranteed order, so a late image
+ * of a device never overwrites a newer one or brings a deleted device back.
+ * Each device takes one slot of a primitive map, holding its state and a code of its brand, one slot
+ * of a primitive set of IDs and one slot of {@link DeviceVersions}, about 50 bytes in all.
+ * Brands are grouped as the database compares them.
+ * Assumes this instance is the only one writing devices.
+ */
+@Component
+public class DeviceStateIndex {
+
+    private static final State[] STATES = State.values();
+
+    private static final int STATE_BITS = 2;
+
+    private static final int MISSING = -1;
+
+    private final DeviceRepository deviceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Brand code and state ordinal of each device, packed in one int.
+    private final LongIntHashMap devices = new LongIntHashMap(1024);
+
+    private final DeviceVersions versions = new DeviceVersions();
+
+    // Brands indexed by code, and codes by brand.
+    private final List<String> brands = new ArrayList<>();
+
+    private final Map<String, Integer> brandCodes = new HashMap<>();
+
+    // IDs of the devices of each brand key and state, indexed by state ordinal.
+    private final Map<String, LongHashSet[]> idsByBrandKey = new HashMap<>();
+
+    // IDs of the devices of each brand code, shared by the codes of the same brand key.
+    private final List<LongHashSet[]> idsByBrandCode = new ArrayList<>();
+
+    public DeviceStateIndex(DeviceRepository deviceRepository, PlatformTransactionManager transactionManager) {
+        this.deviceRepository = deviceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Seeds the index with the devices stored in the database.
+     */
+    @PostConstruct
+    void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<DeviceBrandState> states = deviceRepository.streamBrandStates()) {
+                states.forEach(device -> put(device.id(), device.brand(), device.state(), device.version()));
+            }
+        });
+    }
+
+    /**
+     * Updates the index with a device change, once it is committed, unless a newer change was applied already.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.after() != null) {
+            put(event.after().getId(), event.after().getBrand(), event.after().getState(), event.after().getVersion());
+        } else if (event.before() != null) {
+            lock.writeLock().lock();
+            try {
+                long id = event.before().getId();
+                if (!versions.delete(id, event.before().getVersion())) {
+                    return;
+                }
+                int entry = devices.remove(id, MISSING);
+                if (entry != MISSING) {
+                    idsOf(entry).remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of devices in the given state, of the given brand compared as the database does.
+     *
+     * @param brand the brand of the devices, or null to include all brands
+     * @param state the state of the devices
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of at most {@code limit} matching devices, in no particular order
+     */
+    public long[] findIds(String brand, State state, int limit) {
+        // Concurrent allocators start from random slots and brands, so they do not all get the same devices.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        lock.readLock().lock();
+        try {
+            if (brand != null) {
+                LongHashSet[] ids = idsByBrandKey.get(CollationKeys.of(brand));
+                if (ids == null) {
+                    return new long[0];
+                }
+                LongHashSet stateIds = ids[state.ordinal()];
+                long[] found = new long[Math.min(limit, stateIds.size())];
+                stateIds.copyTo(found, 0, random.nextInt());
+                return found;
+            }
+            long[] found = new long[limit];
+            int count = 0;
+            Collection<LongHashSet[]> brandIds = idsByBrandKey.values();
+            int firstBrand = brandIds.isEmpty() ? 0 : random.nextInt(brandIds.size());
+            // The first pass copies from the brands from the first one on, the second from those before it.
+            for (int pass = 0; pass < 2; pass++) {
+                int brandIndex = 0;
+                for (LongHashSet[] ids : brandIds) {
+                    if (count == limit) {
+                        break;
+                    }
+                    if ((brandIndex++ >= firstBrand) == (pass == 0)) {
+                        count = ids[state.ordinal()].copyTo(found, count, random.nextInt());
+                    }
+                }
+            }
+            return count == limit ? found : Arrays.copyOf(found, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the brand, state and row version of a device as last committed, without its name.
+     *
+     * @param id the ID of the device
+     * @return the device without its name, or null if it is not indexed
+     */
+    public DeviceDto find(long id) {
+        lock.readLock().lock();
+        try {
+            int entry = devices.get(id, MISSING);
+            if (entry == MISSING) {
+                return null;
+            }
+            return new DeviceDto(id, null, brands.get(entry >>> STATE_BITS),
+                    STATES[entry & ((1 << STATE_BITS) - 1)], versions.versionOf(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed devices.
+     *
+     * @return the number of devices
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return devices.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long id, String brand, State state, Long version) {
+        lock.writeLock().lock();
+        try {
+            if (!versions.advance(id, version)) {
+                return;
+            }
+            Integer code = brandCodes.get(brand);
+            if (code == null) {
+                code = brands.size();
+                brands.add(brand);
+                brandCodes.put(brand, code);
+                idsByBrandCode.add(idsByBrandKey.computeIfAbsent(CollationKeys.of(brand), key -> newIdSets()));
+            }
+            int entry = code << STATE_BITS | state.ordinal();
+            int previous = devices.put(id, entry, MISSING);
+            if (previous != entry) {
+                if (previous != MISSING) {
+                    idsOf(previous).remove(id);
+                }
+                idsOf(entry).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // IDs of the devices with the same brand key and state as the given entry.
+    private LongHashSet idsOf(int entry) {
+        return idsByBrandCode.get(entry >>> STATE_BITS)[entry & ((1 << STATE_BITS) - 1)];
+    }
+
+    private static LongHashSet[] newIdSets() {
+        LongHashSet[] sets = new LongHashSet[STATES.length];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new LongHashSet(16);
+        }
+        return sets;
+    }
+}
@@ -0,0 +1,74 @@
+package com.abimael.deviceresources.index;
+
+/**
+ * Last row version an index applied for each device ID, kept as a tombstone after the device is deleted.
+ * Committed changes reach the indexes in no guaranteed order, so an index applies an image of a device
+ * only if it is newer than the last one it applied, or than the one deleted.
+ * Device IDs are never reused, so a tombstone takes one slot, about 12 bytes, until restart.
+ * Not thread-safe.
+ */
+final class DeviceVersions {
+
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    // Versions beyond an int are capped, which only matters after two billion updates of a device.
+    private static final int MAX_VERSION = Integer.MAX_VALUE - 1;
+
+    // Versions of live devices, and bitwise complements of the versions of deleted ones.
+    private final LongIntHashMap versions = new LongIntHashMap(1024);
+
+    /**
+     * Records the version of an image of a device, if it is newer than the last one applied.
+     *
+     * @param id the ID of the device
+     * @param version the row version of the image, or null if unknown, which is newer unless the device was deleted
+     * @return true if the image should be applied, false if it is stale
+     */
+    boolean advance(long id, Long version) {
+        int stored = versions.get(id, MISSING);
+        if (stored != MISSING && stored < 0) {
+            return false;
+        }
+        if (version == null) {
+            return true;
+        }
+        int next = capped(version);
+        if (stored != MISSING && next <= stored) {
+            return false;
+        }
+        versions.put(id, next, MISSING);
+        return true;
+    }
+
+    /**
+     * Records the deletion of a device, leaving a tombstone with its version so later images of it are ignored.
+     *
+     * @param id the ID of the device
+     * @param version the row version of the deleted device, or null if unknown, which outlasts any image
+     * @return true if the deletion should be applied, false if the device was deleted already
+     */
+    boolean delete(long id, Long version) {
+        int stored = versions.get(id, MISSING);
+        if (stored != MISSING && stored < 0) {
+            return false;
+        }
+        int deleted = version == null ? MAX_VERSION : Math.max(capped(version), stored);
+        versions.put(id, ~deleted, MISSING);
+        return true;
+    }
+
+    /**
+     * Returns the version last applied to a device that is not deleted.
+     *
+     * @param id the ID of the device
+     * @return the version, or null if the device is deleted or was only seen without a version
+     */
+    Long versionOf(long id) {
+        int stored = versions.get(id, MISSING);
+        return stored >= 0 ? (long) stored : null;
+    }
+
+    private static int capped(long version) {
+        return (int) Math.max(0, Math.min(version, MAX_VERSION));
+    }
+}
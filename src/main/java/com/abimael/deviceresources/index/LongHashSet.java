@@ -0,0 +1,171 @@
+package com.abimael.deviceresources.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Open-addressing hash set of {@code long}s, without boxing.
+ * Uses linear probing with backward-shift deletion, so it needs about 8 bytes per slot
+ * and no tombstones. Value 0 marks free slots and cannot be stored.
+ * Not thread-safe.
+ */
+public final class LongHashSet {
+
+    private static final long FREE = 0L;
+
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] values;
+
+    private int mask;
+
+    private int size;
+
+    private int resizeAt;
+
+    public LongHashSet(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    /**
+     * Returns whether the set contains the given value.
+     *
+     * @param value the value
+     * @return true if the value is in the set
+     */
+    public boolean contains(long value) {
+        int slot = slotOf(value);
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given value.
+     *
+     * @param value the value, which cannot be 0
+     * @return true if the value was not in the set
+     */
+    public boolean add(long value) {
+        checkArgument(value != FREE, "Value cannot be 0");
+        int slot = slotOf(value);
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given value.
+     *
+     * @param value the value
+     * @return true if the value was in the set
+     */
+    public boolean remove(long value) {
+        int slot = slotOf(value);
+        while (values[slot] != FREE) {
+            if (values[slot] == value) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Copies values of the set into the given array, in no particular order, until it is full.
+     *
+     * @param target the array receiving the values
+     * @param offset the index of the array from which values are copied
+     * @return the index of the array following the last value copied
+     */
+    public int copyTo(long[] target, int offset) {
+        return copyTo(target, offset, 0);
+    }
+
+    /**
+     * Copies values of the set into the given array, in no particular order, until it is full, starting
+     * from the given slot and wrapping around. Callers taking only a few values from a random slot
+     * get a different sample of the set each time, rather than the values of its first slots.
+     *
+     * @param target the array receiving the values
+     * @param offset the index of the array from which values are copied
+     * @param start the slot from which values are copied, any int, reduced to the capacity of the set
+     * @return the index of the array following the last value copied
+     */
+    public int copyTo(long[] target, int offset, int start) {
+        int index = offset;
+        int first = start & mask;
+        for (int i = 0; i < values.length && index < target.length; i++) {
+            long value = values[(first + i) & mask];
+            if (value != FREE) {
+                target[index++] = value;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    // Fills the freed slot with the following values of the probe sequence that may move back to it.
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long value = values[slot];
+            if (value == FREE) {
+                break;
+            }
+            // The value can move to the gap only if the gap is between its ideal slot and its current slot.
+            if (((slot - slotOf(value)) & mask) >= ((slot - gap) & mask)) {
+                values[gap] = value;
+                gap = slot;
+            }
+        }
+        values[gap] = FREE;
+    }
+
+    private void resize() {
+        long[] oldValues = values;
+        allocate(oldValues.length << 1);
+        for (long value : oldValues) {
+            if (value != FREE) {
+                int slot = slotOf(value);
+                while (values[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotOf(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,153 @@
+package com.abimael.deviceresources.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code int} values, without boxing.
+ * Uses linear probing with backward-shift deletion, so it needs about 12 bytes per slot
+ * and no tombstones. Key 0 marks free slots and cannot be stored.
+ * Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    private static final long FREE = 0L;
+
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int mask;
+
+    private int size;
+
+    private int resizeAt;
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1);
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key the key
+     * @param missingValue the value returned if the key is not in the map
+     * @return the value of the key, or {@code missingValue} if it is not in the map
+     */
+    public int get(long key, int missingValue) {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Associates the given value to the given key.
+     *
+     * @param key the key, which cannot be 0
+     * @param value the value
+     * @param missingValue the value returned if the key was not in the map
+     * @return the previous value of the key, or {@code missingValue} if it was not in the map
+     */
+    public int put(long key, int value, int missingValue) {
+        checkArgument(key != FREE, "Key cannot be 0");
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            resize();
+        }
+        return missingValue;
+    }
+
+    /**
+     * Removes the given key.
+     *
+     * @param key the key
+     * @param missingValue the value returned if the key was not in the map
+     * @return the value of the removed key, or {@code missingValue} if it was not in the map
+     */
+    public int remove(long key, int missingValue) {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    // Fills the freed slot with the following keys of the probe sequence that may move back to it.
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == FREE) {
+                break;
+            }
+            // The key can move to the gap only if the gap is between its ideal slot and its current slot.
+            if (((slot - slotOf(key)) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
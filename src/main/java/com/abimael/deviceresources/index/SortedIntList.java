@@ -0,0 +1,105 @@
+package com.abimael.deviceresources.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of distinct {@code int}s kept in ascending order, without boxing.
+ * Needs 4 bytes per value plus the growth slack. Values appended in ascending order, such as new IDs,
+ * are added in constant time; others, and removals, shift the greater values.
+ * Not thread-safe.
+ */
+public final class SortedIntList {
+
+    private int[] values;
+
+    private int size;
+
+    public SortedIntList(int expectedSize) {
+        values = new int[Math.max(4, expectedSize)];
+    }
+
+    /**
+     * Adds the given value.
+     *
+     * @param value the value
+     * @return true if the value was not in the list
+     */
+    public boolean add(int value) {
+        if (size > 0 && values[size - 1] < value) {
+            ensureCapacity();
+            values[size++] = value;
+            return true;
+        }
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertion = -index - 1;
+        ensureCapacity();
+        System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+        values[insertion] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the given value.
+     *
+     * @param value the value
+     * @return true if the value was in the list
+     */
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        if (size < values.length / 4 && values.length > 16) {
+            values = Arrays.copyOf(values, values.length / 2);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first value greater than the given one.
+     *
+     * @param value the value
+     * @return the index of the first greater value, or {@link #size()} if there is none
+     */
+    public int indexAfter(long value) {
+        if (value >= Integer.MAX_VALUE) {
+            return size;
+        }
+        if (value < Integer.MIN_VALUE) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(values, 0, size, (int) value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @param index the index, between 0 and {@link #size()} excluded
+     * @return the value
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the number of values in the list.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+    }
+}
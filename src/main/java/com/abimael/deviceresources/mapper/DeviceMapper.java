@@ -20,6 +20,7 @@ public class DeviceMapper {
         deviceDto.setName(device.getName());
         deviceDto.setBrand(device.getBrand());
         deviceDto.setState(device.getState());
+        deviceDto.setVersion(device.getVersion());
         return deviceDto;
     }
 
@@ -0,0 +1,58 @@
+package com.abimael.deviceresources.metrics;
+
+import com.abimael.deviceresources.service.IDeviceService;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Instruments the calls to {@link IDeviceService} with the timers of {@link ServiceMetricsInterceptor}.
+ * The advisor is an infrastructure bean, so it is applied by the same auto-proxy creator as the
+ * transaction and cache advisors, without requiring AspectJ. It runs first, so the timers include
+ * cache lookups and transaction commits.
+ * Controller endpoints are timed by Spring MVC as {@code http.server.requests}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Creates the interceptor timing the device service, bound to the meter registry at startup.
+     *
+     * @return the interceptor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static ServiceMetricsInterceptor deviceServiceMetricsInterceptor() {
+        return new ServiceMetricsInterceptor(IDeviceService.class);
+    }
+
+    /**
+     * Creates the advisor applying the interceptor to the methods of the device service.
+     *
+     * @param interceptor the interceptor timing the device service
+     * @return the advisor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor deviceServiceMetricsAdvisor(ServiceMetricsInterceptor interceptor) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return ReflectionUtils.findMethod(IDeviceService.class, method.getName(), method.getParameterTypes()) != null;
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(IDeviceService.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
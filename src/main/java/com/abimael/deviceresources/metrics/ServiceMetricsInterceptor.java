@@ -0,0 +1,141 @@
+package com.abimael.deviceresources.metrics;
+
+import com.abimael.deviceresources.exception.DatabaseException;
+import com.abimael.deviceresources.exception.DeviceInUseException;
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.DeviceNotInUseException;
+import com.abimael.deviceresources.exception.PreconditionFailedException;
+import com.abimael.deviceresources.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every method of a service interface, tagged by method and outcome.
+ * All timers are registered when bound to the registry, and looked up by {@link Method} on each call,
+ * so recording a call allocates nothing. Only successful calls publish a percentile histogram,
+ * failed calls are counted per exception type without one, to keep the number of series low.
+ * Methods overloaded in the interface are told apart by their number of parameters.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor, MeterBinder {
+
+    static final String TIMER_NAME = "devices.service";
+
+    /**
+     * Outcome of a service call, from the exception it threw.
+     */
+    enum Outcome {
+        SUCCESS, NOT_FOUND, IN_USE, NOT_AVAILABLE, NOT_IN_USE, PRECONDITION_FAILED, INVALID_ARGUMENT,
+        DATABASE_ERROR, ERROR;
+
+        static Outcome of(Throwable exception) {
+            if (exception instanceof ResourceNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (exception instanceof DeviceInUseException) {
+                return IN_USE;
+            }
+            if (exception instanceof DeviceNotAvailableException) {
+                return NOT_AVAILABLE;
+            }
+            if (exception instanceof DeviceNotInUseException) {
+                return NOT_IN_USE;
+            }
+            if (exception instanceof PreconditionFailedException) {
+                return PRECONDITION_FAILED;
+            }
+            if (exception instanceof IllegalArgumentException) {
+                return INVALID_ARGUMENT;
+            }
+            if (exception instanceof DatabaseException) {
+                return DATABASE_ERROR;
+            }
+            return ERROR;
+        }
+    }
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final Class<?> serviceInterface;
+
+    // Timers of each interface method, indexed by outcome ordinal. Empty until bound to a registry.
+    private volatile Map<Method, Timer[]> timersByInterfaceMethod = Map.of();
+
+    // Timers of each invoked method, which may be the implementation of an interface method.
+    private final Map<Method, Timer[]> timersByMethod = new ConcurrentHashMap<>();
+
+    public ServiceMetricsInterceptor(Class<?> serviceInterface) {
+        this.serviceInterface = serviceInterface;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Method[] methods = serviceInterface.getMethods();
+        Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+        for (Method method : methods) {
+            String name = isOverloaded(methods, method) ? method.getName() + "#" + method.getParameterCount()
+                    : method.getName();
+            Timer[] outcomeTimers = new Timer[OUTCOMES.length];
+            for (Outcome outcome : OUTCOMES) {
+                outcomeTimers[outcome.ordinal()] = Timer.builder(TIMER_NAME)
+                        .description("Time taken by the calls to the device service")
+                        .tag("method", name)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .publishPercentileHistogram(outcome == Outcome.SUCCESS)
+                        .register(registry);
+            }
+            timers.put(method, outcomeTimers);
+        }
+        timersByMethod.clear();
+        timersByInterfaceMethod = timers;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Timer[] timers = timersOf(invocation.getMethod());
+        if (timers == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.SUCCESS;
+        try {
+            return invocation.proceed();
+        } catch (Throwable ex) {
+            outcome = Outcome.of(ex);
+            throw ex;
+        } finally {
+            timers[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Returns the timers of the given method, resolving it to the interface method on its first call.
+    private Timer[] timersOf(Method method) {
+        Timer[] timers = timersByMethod.get(method);
+        if (timers != null) {
+            return timers;
+        }
+        Map<Method, Timer[]> interfaceTimers = timersByInterfaceMethod;
+        if (interfaceTimers.isEmpty()) {
+            return null;
+        }
+        Method interfaceMethod = ReflectionUtils.findMethod(serviceInterface, method.getName(), method.getParameterTypes());
+        timers = interfaceMethod == null ? null : interfaceTimers.get(interfaceMethod);
+        if (timers != null) {
+            timersByMethod.put(method, timers);
+        }
+        return timers;
+    }
+
+    private static boolean isOverloaded(Method[] methods, Method method) {
+        return Arrays.stream(methods).filter(other -> other.getName().equals(method.getName())).count() > 1;
+    }
+}
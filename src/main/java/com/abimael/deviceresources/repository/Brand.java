@@ -0,0 +1,10 @@
+package com.abimael.deviceresources.repository;
+
+/**
+ * Row of the {@code brand} lookup table, which devices reference by ID.
+ *
+ * @param id the ID of the brand
+ * @param name the brand, as spelled when it was first stored
+ */
+public record Brand(int id, String name) {
+}
@@ -0,0 +1,87 @@
+package com.abimael.deviceresources.repository;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and appends the rows of the {@code brand} lookup table with plain JDBC.
+ * Brands are never updated nor deleted, so they skip the persistence context.
+ */
+@Repository
+public class BrandRepository {
+
+    private static final String SELECT_ALL = "SELECT brand_id, brand_name FROM brand";
+
+    private static final String SELECT_ID = "SELECT brand_id FROM brand WHERE brand_name = ?";
+
+    private static final String INSERT = "INSERT INTO brand (brand_name) VALUES (?)";
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BrandRepository(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Finds every brand.
+     *
+     * @return the brands, in no particular order
+     */
+    public List<Brand> findAll() {
+        return jdbcTemplate.query(SELECT_ALL, (row, rowNum) -> new Brand(row.getInt(1), row.getString(2)));
+    }
+
+    /**
+     * Returns the ID of the brand spelled exactly as given, inserting the brand if it does not exist.
+     * Runs in auto-commit on a connection of its own, so the brand is committed, and can be referenced
+     * by other transactions, whatever happens to the write that needs it. Must be called outside any
+     * transaction, so the caller never holds two connections at once.
+     *
+     * @param name the brand
+     * @return the ID of the brand
+     */
+    public int insertIfAbsent(String name) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate autoCommit = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Optional<Integer> existing = findId(autoCommit, name);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            try {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                autoCommit.update(con -> {
+                    PreparedStatement statement = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+                    statement.setString(1, name);
+                    return statement;
+                }, keyHolder);
+                return keyHolder.getKeyAs(Number.class).intValue();
+            } catch (DuplicateKeyException ex) {
+                // Inserted concurrently since it was looked up.
+                return findId(autoCommit, name).orElseThrow(() -> ex);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessResourceFailureException("Could not store brand " + name, ex);
+        }
+    }
+
+    private static Optional<Integer> findId(JdbcTemplate jdbcTemplate, String name) {
+        return jdbcTemplate.query(SELECT_ID, (row, rowNum) -> row.getInt(1), name).stream().findFirst();
+    }
+}
@@ -0,0 +1,13 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.util.State;
+
+/**
+ * Number of devices of a brand in a given state.
+ *
+ * @param brand the brand of the devices
+ * @param state the state of the devices
+ * @param count the number of devices
+ */
+public record BrandStateCount(String brand, State state, Long count) {
+}
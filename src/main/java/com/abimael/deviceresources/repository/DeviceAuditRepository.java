@@ -0,0 +1,60 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.audit.DeviceAuditRecord;
+import com.abimael.deviceresources.dto.DeviceDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Appends {@link DeviceAuditRecord}s to the {@code device_audit} table with plain JDBC.
+ * Records are never read back nor updated by the application, so they skip the persistence context.
+ */
+@Repository
+public class DeviceAuditRepository {
+
+    private static final String INSERT = "INSERT INTO device_audit (device_id, action,"
+            + " before_name, before_brand, before_state, after_name, after_brand, after_state, after_version,"
+            + " changed_at, changed_by, client_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeviceAuditRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given records as one JDBC batch, which the MySQL driver rewrites
+     * into multi-row inserts ({@code rewriteBatchedStatements}).
+     *
+     * @param records the records to insert
+     */
+    public void insertAll(List<DeviceAuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT, records, records.size(), (statement, record) -> {
+            statement.setLong(1, record.deviceId());
+            statement.setString(2, record.action());
+            setDevice(statement, 3, record.before());
+            setDevice(statement, 6, record.after());
+            if (record.after() != null && record.after().getVersion() != null) {
+                statement.setLong(9, record.after().getVersion());
+            } else {
+                statement.setNull(9, Types.BIGINT);
+            }
+            statement.setTimestamp(10, Timestamp.valueOf(record.changedAt()));
+            statement.setString(11, record.changedBy());
+            statement.setString(12, record.clientId());
+        });
+    }
+
+    // Sets the name, brand and state of the device from the given parameter index, or nulls if there is no device.
+    private static void setDevice(PreparedStatement statement, int index, DeviceDto device) throws SQLException {
+        statement.setString(index, device == null ? null : device.getName());
+        statement.setString(index + 1, device == null ? null : device.getBrand());
+        statement.setString(index + 2, device == null || device.getState() == null ? null : device.getState().name());
+    }
+}
@@ -0,0 +1,14 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.util.State;
+
+/**
+ * Brand, state and row version of a device.
+ *
+ * @param id the ID of the device
+ * @param brand the brand of the device
+ * @param state the state of the device
+ * @param version the row version of the device
+ */
+public record DeviceBrandState(Long id, String brand, State state, Long version) {
+}
@@ -1,10 +1,143 @@
 package com.abimael.deviceresources.repository;
 
+import com.abimael.deviceresources.dto.DeviceDto;
 import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.util.State;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, Long>, JpaSpecificationExecutor<Device> {
+public interface DeviceRepository extends JpaRepository<Device, Long>, JpaSpecificationExecutor<Device>,
+        DeviceRepositoryCustom {
+
+    /**
+     * Finds a device by its ID, projected straight into {@link DeviceDto} without loading the entity.
+     *
+     * @param id the ID of the device
+     * @return the device, or empty if it does not exist
+     */
+    @Query("select new com.abimael.deviceresources.dto.DeviceDto(d.id, d.name, d.brand, d.state, d.version) "
+            + "from Device d where d.id = :id")
+    Optional<DeviceDto> findDeviceDtoById(@Param("id") Long id);
+
+    /**
+     * Finds and locks a device by its ID with {@code SELECT ... FOR UPDATE}, so it cannot change
+     * until the transaction ends and is known as it was before the transaction changes it.
+     * Must be called inside a transaction, which holds the lock until it ends.
+     *
+     * @param id the ID of the device
+     * @return the locked device, or empty if it does not exist
+     */
+    @Query(value = "select * from device where device_id = :id for update", nativeQuery = true)
+    Optional<Device> lockDeviceById(@Param("id") Long id);
+
+    /**
+     * Counts the devices grouped by brand and state.
+     *
+     * @return the number of devices of each brand and state having at least one device
+     */
+    @Query("select new com.abimael.deviceresources.repository.BrandStateCount(d.brand, d.state, count(d)) "
+            + "from Device d group by d.brand, d.state")
+    List<BrandStateCount> countByBrandAndState();
+
+    /**
+     * Updates a device in a single statement, only if it still has the given version.
+     * The name and brand of a device in use cannot change, so the device is also updated
+     * only if it is not in use or keeps its name and brand.
+     * Must be called inside a transaction.
+     *
+     * @param id the ID of the device
+     * @param version the version the device must have
+     * @param name the new name of the device
+     * @param brand the new brand of the device
+     * @param state the new state of the device
+     * @param updatedAt the time of the update
+     * @param updatedBy the auditor performing the update
+     * @return 1 if the device was updated, or 0 if it does not exist, has another version or is in use
+     */
+    @Modifying
+    @Query("update Device d set d.name = :name, d.brand = :brand, d.state = :state, d.version = d.version + 1, "
+            + "d.updatedAt = :updatedAt, d.updatedBy = :updatedBy "
+            + "where d.id = :id and d.version = :version "
+            + "and (d.state <> com.abimael.deviceresources.util.State.IN_USE or (d.name = :name and d.brand = :brand))")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Long version, @Param("name") String name,
+                               @Param("brand") String brand, @Param("state") State state,
+                               @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedBy") String updatedBy);
+
+    /**
+     * Deletes a device in a single statement, only if it is not in use, without reading or locking it first.
+     * Must be called inside a transaction.
+     *
+     * @param id the ID of the device
+     * @return 1 if the device was deleted, or 0 if it does not exist or is in use
+     */
+    @Modifying
+    @Query("delete from Device d where d.id = :id and d.state <> com.abimael.deviceresources.util.State.IN_USE")
+    int deleteIfNotInUse(@Param("id") Long id);
+
+    /**
+     * Finds and locks the available device of the given brand with the lowest ID, skipping the devices
+     * locked by other transactions, so concurrent callers each claim a different device without waiting.
+     * Must be called inside a transaction, which holds the lock until it ends.
+     *
+     * @param brandIds the IDs of the spellings of the brand of the device, not empty
+     * @return the locked device, or empty if every available device of the brand is taken or locked
+     */
+    @Query(value = "select * from device where device_brand_id in (:brandIds) and device_state = 'AVAILABLE' "
+            + "order by device_id limit 1 for update skip locked", nativeQuery = true)
+    Optional<Device> lockAvailableDeviceByBrand(@Param("brandIds") Collection<Integer> brandIds);
+
+    /**
+     * Finds and locks the available device with the lowest ID, skipping the devices locked by other
+     * transactions. Must be called inside a transaction, which holds the lock until it ends.
+     *
+     * @return the locked device, or empty if every available device is taken or locked
+     */
+    @Query(value = "select * from device where device_state = 'AVAILABLE' "
+            + "order by device_id limit 1 for update skip locked", nativeQuery = true)
+    Optional<Device> lockAvailableDevice();
+
+    /**
+     * Changes the state of a device in a single statement, only if it is in the expected state.
+     * Must be called inside a transaction.
+     *
+     * @param id the ID of the device
+     * @param currentState the state the device must be in
+     * @param state the new state of the device
+     * @param updatedAt the time of the update
+     * @param updatedBy the auditor performing the update
+     * @return 1 if the device was updated, or 0 if it does not exist or is in another state
+     */
+    @Modifying
+    @Query("update Device d set d.state = :state, d.version = d.version + 1, "
+            + "d.updatedAt = :updatedAt, d.updatedBy = :updatedBy "
+            + "where d.id = :id and d.state = :currentState")
+    int updateStateIfCurrent(@Param("id") Long id, @Param("currentState") State currentState,
+                             @Param("state") State state, @Param("updatedAt") LocalDateTime updatedAt,
+                             @Param("updatedBy") String updatedBy);
+
+    /**
+     * Changes the state of the given devices in a single statement, whatever their current state.
+     * Must be called inside a transaction, with the devices locked so their state is known.
+     *
+     * @param ids the IDs of the devices
+     * @param state the new state of the devices
+     * @param updatedAt the time of the update
+     * @param updatedBy the auditor performing the update
+     * @return the number of devices updated
+     */
+    @Modifying
+    @Query("update Device d set d.state = :state, d.version = d.version + 1, "
+            + "d.updatedAt = :updatedAt, d.updatedBy = :updatedBy where d.id in :ids")
+    int updateStates(@Param("ids") List<Long> ids, @Param("state") State state,
+                     @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedBy") String updatedBy);
 }
@@ -0,0 +1,64 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.entity.Device;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries of {@link DeviceRepository} that cannot be derived by Spring Data.
+ */
+public interface DeviceRepositoryCustom {
+
+    /**
+     * Finds the devices matching the given specification, ordered by ID, projected straight
+     * into {@link DeviceDto} without loading {@link Device} entities.
+     *
+     * @param specification the specification the devices must match
+     * @param limit the maximum number of devices to return, or 0 to return all of them
+     * @return the matching devices
+     */
+    List<DeviceDto> findDeviceDtos(Specification<Device> specification, int limit);
+
+    /**
+     * Streams the devices matching the given specification, ordered by ID.
+     * Rows are fetched with the {@code devices.stream.fetch-size} of the driver, which reads them
+     * through a forward-only cursor instead of loading the whole result set in memory.
+     * Must be consumed inside a transaction, and the stream must be closed afterwards.
+     *
+     * @param specification the specification the devices must match
+     * @return a stream of the matching devices
+     */
+    Stream<Device> streamDevices(Specification<Device> specification);
+
+    /**
+     * Finds and locks the devices matching the given specification, ordered by ID, with
+     * {@code SELECT ... FOR UPDATE}, so they cannot change until the transaction ends.
+     * Must be called inside a transaction.
+     *
+     * @param specification the specification the devices must match
+     * @param limit the maximum number of devices to lock
+     * @return the locked devices
+     */
+    List<Device> lockDevices(Specification<Device> specification, int limit);
+
+    /**
+     * Streams the brand, state and row version of every device, with the same fetch size as
+     * {@link #streamDevices(Specification)}.
+     * Must be consumed inside a transaction, and the stream must be closed afterwards.
+     *
+     * @return a stream of the brand, state and row version of each device
+     */
+    Stream<DeviceBrandState> streamBrandStates();
+
+    /**
+     * Streams every device, projected into {@link DeviceDto} and ordered by ID, with the same fetch
+     * size as {@link #streamDevices(Specification)}.
+     * Must be consumed inside a transaction, and the stream must be closed afterwards.
+     *
+     * @return a stream of all devices
+     */
+    Stream<DeviceDto> streamDeviceDtos();
+}
@@ -0,0 +1,99 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.entity.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link DeviceRepositoryCustom} using the Criteria API, so the
+ * {@link Specification}s of {@link DeviceSpecifications} can be reused with a constructor projection.
+ */
+public class DeviceRepositoryCustomImpl implements DeviceRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Integer.MIN_VALUE makes the MySQL driver stream rows one by one; other drivers need a positive size.
+    @Value("${devices.stream.fetch-size}")
+    private int streamFetchSize;
+
+    @Override
+    public List<DeviceDto> findDeviceDtos(Specification<Device> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DeviceDto> query = cb.createQuery(DeviceDto.class);
+        Root<Device> root = query.from(Device.class);
+        query.select(cb.construct(DeviceDto.class,
+                root.get("id"), root.get("name"), root.get("brand"), root.get("state"), root.get("version")));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+        TypedQuery<DeviceDto> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<Device> lockDevices(Specification<Device> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Device> streamDevices(Specification<Device> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Device> query = cb.createQuery(Device.class);
+        Root<Device> root = query.from(Device.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<DeviceBrandState> streamBrandStates() {
+        return entityManager.createQuery("select new com.abimael.deviceresources.repository.DeviceBrandState("
+                        + "d.id, d.brand, d.state, d.version) from Device d", DeviceBrandState.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<DeviceDto> streamDeviceDtos() {
+        return entityManager.createQuery("select new com.abimael.deviceresources.dto.DeviceDto("
+                        + "d.id, d.name, d.brand, d.state, d.version) from Device d order by d.id", DeviceDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream();
+    }
+}
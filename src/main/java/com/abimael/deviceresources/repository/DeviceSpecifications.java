@@ -0,0 +1,71 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.util.State;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Factory methods for the {@link Specification}s used to query {@link Device} entities.
+ */
+public final class DeviceSpecifications {
+
+    private DeviceSpecifications() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Builds a specification filtering devices by the given brand and/or state.
+     * Devices store the ID of their brand, so the brand is matched as any of its stored spellings.
+     *
+     * @param brands the spellings of the brand of the devices to filter by, see
+     *               {@code BrandDictionary.spellingsOf}, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @return the specification matching the given filters
+     */
+    public static Specification<Device> byBrandAndState(Collection<String> brands, String state) {
+        Specification<Device> specification = Specification.where(null);
+        if (brands != null) {
+            specification = specification.and((root, query, cb) ->
+                    brands.isEmpty() ? cb.disjunction() : root.get("brand").in(brands));
+        }
+        if (StringUtils.isNotBlank(state)) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("state"), state));
+        }
+        return specification;
+    }
+
+    /**
+     * Builds a specification matching devices whose ID is strictly greater than the given one.
+     *
+     * @param id the ID after which devices are matched
+     * @return the specification matching the devices after the given ID
+     */
+    public static Specification<Device> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Builds a specification matching the devices with the given IDs.
+     *
+     * @param ids the IDs of the devices
+     * @return the specification matching the devices with the given IDs
+     */
+    public static Specification<Device> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Builds a specification matching the devices that can be moved to the given state by a bulk
+     * state change: the devices not in use, which only their holder may release, and not already
+     * in the given state.
+     *
+     * @param state the state the devices would be moved to
+     * @return the specification matching the devices that can be moved to the given state
+     */
+    public static Specification<Device> stateChangeableTo(State state) {
+        return (root, query, cb) -> root.get("state").in(State.IN_USE, state).not();
+    }
+}
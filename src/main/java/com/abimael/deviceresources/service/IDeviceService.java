@@ -1,18 +1,47 @@
 package com.abimael.deviceresources.service;
 
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
 import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DevicePageDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeResultDto;
+import com.abimael.deviceresources.dto.DeviceStatsDto;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IDeviceService {
 
     DeviceDto createDevice(DeviceDto deviceDto);
 
+    List<DeviceBatchResultDto> createDevices(Iterator<DeviceDto> deviceDtos);
+
     List<DeviceDto> fetchDevices(String brand, String state);
 
+    DevicePageDto fetchDevices(String brand, String state, int limit, String after);
+
+    String fetchDevicesVersion(String brand, String state);
+
+    long[] fetchDeviceIds(String brand, String state, int limit);
+
+    DevicePageDto searchDevices(String text, String brand, String state, int limit, String after);
+
+    void exportDevices(String brand, String state, Consumer<DeviceDto> consumer);
+
+    DeviceStatsDto fetchDeviceStats();
+
     DeviceDto fetchDeviceById(Long id);
 
     void deleteById(Long id);
 
     DeviceDto updateDevice(DeviceDto deviceDto, Long id);
+
+    DeviceDto updateDevice(DeviceDto deviceDto, Long id, Long version);
+
+    DeviceStateChangeResultDto changeDeviceStates(DeviceStateChangeDto stateChange);
+
+    DeviceDto checkoutDevice(String brand);
+
+    DeviceDto releaseDevice(Long id);
 }
@@ -1,22 +1,67 @@
 package com.abimael.deviceresources.service.impl;
 
+import com.abimael.deviceresources.config.CacheConfig;
+import com.abimael.deviceresources.constants.DevicesConstants;
+import com.abimael.deviceresources.datasource.ReplicaReadContext;
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
 import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DevicePageDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeResultDto;
+import com.abimael.deviceresources.dto.DeviceStatsDto;
 import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
 import com.abimael.deviceresources.exception.DatabaseException;
 import com.abimael.deviceresources.exception.ResourceNotFoundException;
 import com.abimael.deviceresources.exception.DeviceInUseException;
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.DeviceNotInUseException;
+import com.abimael.deviceresources.exception.PreconditionFailedException;
+import com.abimael.deviceresources.index.BrandDictionary;
+import com.abimael.deviceresources.index.DeviceListKey;
+import com.abimael.deviceresources.index.DeviceListVersions;
+import com.abimael.deviceresources.index.DeviceNameIndex;
+import com.abimael.deviceresources.index.DeviceStateIndex;
 import com.abimael.deviceresources.mapper.DeviceMapper;
 import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.repository.DeviceSpecifications;
 import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.stats.DeviceStatsCounters;
+import com.abimael.deviceresources.util.DeviceCursor;
 import com.abimael.deviceresources.util.State;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.commons.lang3.ObjectUtils.isNotEmpty;
@@ -34,69 +79,307 @@ public class DeviceServiceImpl implements IDeviceService {
 
     private final DeviceRepository deviceRepository;
 
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DeviceStatsCounters deviceStatsCounters;
+
+    private final DeviceStateIndex deviceStateIndex;
+
+    private final DeviceNameIndex deviceNameIndex;
+
+    private final DeviceListVersions deviceListVersions;
+
+    private final BrandDictionary brandDictionary;
+
+    private final AuditorAware<String> auditorAware;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
     /**
      * Create a new device using the given information.
      *
      * @param deviceDto device information
      */
     @Override
+    @CachePut(cacheNames = CacheConfig.DEVICES_CACHE, key = "#result.id")
     public DeviceDto createDevice(DeviceDto deviceDto) {
         Device device = DeviceMapper.mapToDevice(deviceDto);
         try {
+            storeBrand(device.getBrand());
             deviceRepository.save(device);
         } catch (DataAccessException ex) {
             throw new DatabaseException("Device");
         }
-        return DeviceMapper.mapToDeviceDto(device);
+        DeviceDto created = DeviceMapper.mapToDeviceDto(device);
+        created.setBrand(brandDictionary.intern(created.getBrand()));
+        eventPublisher.publishEvent(DeviceChangedEvent.created(created));
+        return created;
+    }
+
+    /**
+     * Create devices in batches. Each device is validated on its own, and the valid ones are
+     * inserted in chunks of {@link DevicesConstants#INSERT_BATCH_SIZE}, each chunk sent to the
+     * database as a single JDBC batch. A chunk failing to insert does not affect the others.
+     *
+     * @param deviceDtos the devices to create, read one by one
+     * @return the result of each device, ordered by its position in the input
+     */
+    @Override
+    public List<DeviceBatchResultDto> createDevices(Iterator<DeviceDto> deviceDtos) {
+        List<DeviceBatchResultDto> results = new ArrayList<>();
+        List<Device> chunk = new ArrayList<>(DevicesConstants.INSERT_BATCH_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(DevicesConstants.INSERT_BATCH_SIZE);
+        int index = 0;
+        while (deviceDtos.hasNext()) {
+            DeviceDto deviceDto = deviceDtos.next();
+            String violations = validate(deviceDto);
+            if (violations == null) {
+                chunk.add(DeviceMapper.mapToDevice(deviceDto));
+                chunkIndexes.add(index);
+            } else {
+                results.add(new DeviceBatchResultDto(index, DevicesConstants.STATUS_400, violations, null));
+            }
+            index++;
+            if (chunk.size() == DevicesConstants.INSERT_BATCH_SIZE) {
+                saveChunk(chunk, chunkIndexes, results);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, chunkIndexes, results);
+        }
+        results.sort(Comparator.comparingInt(DeviceBatchResultDto::getIndex));
+        return results;
     }
 
     /**
-     * Retrieve devices from the database filtered by the given brand and/or state.
+     * Retrieve devices filtered by the given brand and/or state.
+     * Lists are cached under their version, so identical requests share a single query until one of
+     * the listed devices changes, and concurrent requests missing the same list wait for that query.
+     * The version is read before the list is loaded, so a list is never cached under a version newer
+     * than its devices. Lists are loaded in a read-only transaction, which a replica serves when there
+     * is one, and a list read from a replica is only handed to the requests waiting for it, then evicted,
+     * as the replica may lag behind the version.
      *
      * @param brand the brand of the devices to filter by, or null to include all brands
      * @param state the state of the devices to filter by, or null to include all states
      * @return a list of {@link DeviceDto} containing the matching devices
+     * @throws IllegalArgumentException if the state is not valid
      */
     @Override
     public List<DeviceDto> fetchDevices(String brand, String state) {
-        List<Device> devices = findByFiltersBrandAndState(brand, state);
-        return devices.stream()
-                .map(DeviceMapper::mapToDeviceDto)
-                .collect(Collectors.toList());
+        State stateFilter = StringUtils.isNotBlank(state) ? State.valueOf(state) : null;
+        DeviceListKey key = deviceListVersions.keyOf(StringUtils.isNotBlank(brand) ? brand : null, stateFilter);
+        Cache cache = cacheManager.getCache(CacheConfig.DEVICE_LISTS_CACHE);
+        AtomicBoolean readFromReplica = new AtomicBoolean();
+        List<DeviceDto> devices = cache.get(key, () -> executeReadOnly(status -> {
+            List<DeviceDto> loaded = List.copyOf(deviceRepository.findDeviceDtos(
+                    DeviceSpecifications.byBrandAndState(brandSpellings(brand), state), 0));
+            readFromReplica.set(ReplicaReadContext.isReplicaRead());
+            return loaded;
+        }));
+        if (readFromReplica.get()) {
+            cache.evict(key);
+        }
+        return devices;
+    }
+
+    /**
+     * Retrieve a page of devices filtered by the given brand and/or state, ordered by ID.
+     * Each page is read as a bounded range of IDs after the given cursor, so the cost of
+     * a page does not depend on how deep into the result set it is.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param limit the maximum number of devices to return
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @return a {@link DevicePageDto} containing the matching devices and the cursor of the next page
+     * @throws IllegalArgumentException if the limit is out of bounds or the cursor is not valid
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DevicePageDto fetchDevices(String brand, String state, int limit, String after) {
+        checkArgument(limit > 0 && limit <= DevicesConstants.MAX_PAGE_SIZE,
+                "Limit must be between 1 and %s", DevicesConstants.MAX_PAGE_SIZE);
+        Specification<Device> specification = DeviceSpecifications.byBrandAndState(brandSpellings(brand), state);
+        Long afterId = DeviceCursor.decode(after);
+        if (afterId != null) {
+            specification = specification.and(DeviceSpecifications.idGreaterThan(afterId));
+        }
+        // Fetch one extra device to know whether there is a next page without counting.
+        List<DeviceDto> devices = deviceRepository.findDeviceDtos(specification, limit + 1);
+        boolean hasNext = devices.size() > limit;
+        List<DeviceDto> page = hasNext ? devices.subList(0, limit) : devices;
+        String nextCursor = hasNext ? DeviceCursor.encode(page.get(page.size() - 1).getId()) : null;
+        return new DevicePageDto(page, nextCursor);
+    }
+
+    /**
+     * Retrieve the version of the devices filtered by the given brand and/or state, without
+     * querying the database. The version changes whenever one of the devices changes, so it must
+     * be read before the devices it describes: a change committed in between then only makes
+     * the version older than the devices, never newer.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @return an opaque version of the matching devices
+     * @throws IllegalArgumentException if the state is not valid
+     */
+    @Override
+    public String fetchDevicesVersion(String brand, String state) {
+        String brandFilter = StringUtils.isNotBlank(brand) ? brand : null;
+        State stateFilter = StringUtils.isNotBlank(state) ? State.valueOf(state) : null;
+        return deviceListVersions.versionOf(brandFilter, stateFilter);
+    }
+
+    /**
+     * Retrieve the IDs of devices in the given state, and of the given brand, from the in-memory index
+     * instead of the database. Meant for allocators looking for devices to use, e.g. available ones.
+     *
+     * @param brand the brand of the devices, or null to include all brands
+     * @param state the state of the devices
+     * @param limit the maximum number of IDs to return
+     * @return the IDs of at most {@code limit} matching devices, in no particular order
+     * @throws IllegalArgumentException if the state is not valid or the limit is out of bounds
+     */
+    @Override
+    public long[] fetchDeviceIds(String brand, String state, int limit) {
+        checkArgument(StringUtils.isNotBlank(state), "State cannot be empty");
+        checkArgument(limit > 0 && limit <= DevicesConstants.MAX_PAGE_SIZE,
+                "Limit must be between 1 and %s", DevicesConstants.MAX_PAGE_SIZE);
+        return deviceStateIndex.findIds(StringUtils.isNotBlank(brand) ? brand : null, State.valueOf(state), limit);
+    }
+
+    /**
+     * Retrieve a page of devices whose name contains the given text, ignoring case and accents,
+     * filtered by the given brand and/or state, ordered by ID.
+     * Matching devices are found in the in-memory name index, and only the devices of the page
+     * are then read from the database, by ID and filtered by brand and state again, so a device
+     * changed since the index was updated is not returned with a brand or state it no longer has.
+     *
+     * @param text the text the device names must contain
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param limit the maximum number of devices to return
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @return a {@link DevicePageDto} containing the matching devices and the cursor of the next page
+     * @throws IllegalArgumentException if the text is too short, the state is not valid,
+     *         the limit is out of bounds or the cursor is not valid
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DevicePageDto searchDevices(String text, String brand, String state, int limit, String after) {
+        checkArgument(StringUtils.isNotBlank(text), "Search text cannot be empty");
+        checkArgument(limit > 0 && limit <= DevicesConstants.MAX_PAGE_SIZE,
+                "Limit must be between 1 and %s", DevicesConstants.MAX_PAGE_SIZE);
+        State stateFilter = StringUtils.isNotBlank(state) ? State.valueOf(state) : null;
+        Long afterId = DeviceCursor.decode(after);
+        // Find one extra device to know whether there is a next page.
+        long[] ids = deviceNameIndex.search(text, StringUtils.isNotBlank(brand) ? brand : null, stateFilter,
+                afterId != null ? afterId : 0L, limit + 1);
+        boolean hasNext = ids.length > limit;
+        List<Long> pageIds = Arrays.stream(ids, 0, Math.min(ids.length, limit)).boxed().toList();
+        List<DeviceDto> page = pageIds.isEmpty() ? List.of()
+                : deviceRepository.findDeviceDtos(DeviceSpecifications.idIn(pageIds)
+                        .and(DeviceSpecifications.byBrandAndState(brandSpellings(brand), state)), 0);
+        String nextCursor = hasNext ? DeviceCursor.encode(pageIds.get(pageIds.size() - 1)) : null;
+        return new DevicePageDto(page, nextCursor);
+    }
+
+    /**
+     * Export the devices filtered by the given brand and/or state, ordered by ID.
+     * Devices are read through a forward-only cursor and handed to the consumer one by one,
+     * clearing the persistence context periodically so memory stays constant whatever the
+     * number of devices.
+     *
+     * @param brand the brand of the devices to filter by, or null to include all brands
+     * @param state the state of the devices to filter by, or null to include all states
+     * @param consumer the consumer receiving each matching device
+     * @throws IllegalArgumentException if the state is not valid
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportDevices(String brand, String state, Consumer<DeviceDto> consumer) {
+        State stateFilter = StringUtils.isNotBlank(state) ? State.valueOf(state) : null;
+        try (Stream<Device> devices = deviceRepository.streamDevices(DeviceSpecifications.byBrandAndState(
+                brandSpellings(brand), stateFilter != null ? stateFilter.name() : null))) {
+            Iterator<Device> iterator = devices.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(DeviceMapper.mapToDeviceDto(iterator.next()));
+                if (++count % DevicesConstants.EXPORT_BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of devices per state, and per brand and state.
+     * Counts are maintained in memory, so no query is sent to the database.
+     *
+     * @return a {@link DeviceStatsDto} containing the device counts
+     */
+    @Override
+    public DeviceStatsDto fetchDeviceStats() {
+        return deviceStatsCounters.snapshot();
     }
 
     /**
      * Retrieve a device by its ID.
+     * Devices missing from the cache are read in a read-only transaction, which a replica serves when there
+     * is one, and are cached only when read from the primary, so a device evicted by a write is never cached
+     * again as a lagging replica still has it.
      *
      * @param id the ID of the device to retrieve
      * @return a {@link DeviceDto} containing the matching device
      * @throws ResourceNotFoundException if the device is not found
      */
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id",
+            unless = "T(com.abimael.deviceresources.datasource.ReplicaReadContext).isReplicaRead()")
     public DeviceDto fetchDeviceById(Long id) {
         checkArgument(isNotEmpty(id), "Id cannot be null");
-        Device device = deviceRepository.findById(id).orElseThrow(
+        return deviceRepository.findDeviceDtoById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Device", "id", id)
         );
-        return DeviceMapper.mapToDeviceDto(device);
     }
 
     /**
      * Deletes a device by its ID using the service layer.
+     * The device is deleted by a single statement that skips devices in use, and is checked for existence
+     * only when no device was deleted, to report why. The change published for it carries the device
+     * as cached or indexed, as MySQL cannot return the deleted row. Only a device neither cached nor
+     * indexed is read from the database first, without being locked.
      *
      * @param id the ID of the device to be deleted
      * @throws ResourceNotFoundException if the device is not found
      * @throws DeviceInUseException if the device is currently in use
      */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
     public void deleteById(Long id) {
-        DeviceDto deviceDto = fetchDeviceById(id);
-        checkNotInUse(deviceDto.getState(), id);
+        checkArgument(isNotEmpty(id), "Id cannot be null");
+        DeviceDto before;
         try {
-            deviceRepository.deleteById(id);
+            before = committedDeviceDto(id);
+            if (deviceRepository.deleteIfNotInUse(id) == 0) {
+                if (deviceRepository.existsById(id)) {
+                    throw new DeviceInUseException("Device", "id", id);
+                }
+                throw new ResourceNotFoundException("Device", "id", id);
+            }
         } catch (DataAccessException ex) {
             throw new DatabaseException("Device");
         }
+        eventPublisher.publishEvent(DeviceChangedEvent.deleted(before));
     }
 
     /**
@@ -106,13 +389,16 @@ public class DeviceServiceImpl implements IDeviceService {
      * @return the updated device
      * @throws ResourceNotFoundException if the device is not found
      * @throws DeviceInUseException if the device is currently in use
+     * @throws PreconditionFailedException if the device is updated concurrently
      */
     @Override
+    @CachePut(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
     public DeviceDto updateDevice(DeviceDto deviceDto, Long id) {
         checkArgument(isNotEmpty(id), "Id cannot be null");
         Device device = deviceRepository.findById(id).orElseThrow(
                 () -> new ResourceNotFoundException("Device", "id", id)
         );
+        DeviceDto before = DeviceMapper.mapToDeviceDto(device);
         if (StringUtils.isNoneBlank(deviceDto.getName()) && !device.getName().equals(deviceDto.getName())) {
             checkNotInUse(device.getState(), id);
             device.setName(deviceDto.getName());
@@ -125,29 +411,323 @@ public class DeviceServiceImpl implements IDeviceService {
             device.setState(deviceDto.getState());
         }
         try {
-            deviceRepository.save(device);
+            storeBrand(device.getBrand());
+            device = deviceRepository.save(device);
+        } catch (OptimisticLockingFailureException ex) {
+            throw new PreconditionFailedException("Device", "id", id);
         } catch (DataAccessException ex) {
             throw new DatabaseException("Device");
         }
-        return DeviceMapper.mapToDeviceDto(device);
+        DeviceDto updated = DeviceMapper.mapToDeviceDto(device);
+        updated.setBrand(brandDictionary.intern(updated.getBrand()));
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(before, updated));
+        return updated;
     }
 
-     // Checks if the given device is in use and throws a DeviceInUseException if that's the case.
-    private static void checkNotInUse(State device, Long deviceDto) {
-        if (device == State.IN_USE) {
-            throw new DeviceInUseException("Device", "id", deviceDto);
+    /**
+     * Updates a device by its ID, only if it still has the given version.
+     * The device is updated by a single conditional statement, and is read only when no device was
+     * updated, to report why. The change published for it starts from the device as cached or indexed,
+     * at the given version, and ends with the given values at the next version. Only a device neither
+     * cached nor indexed is read from the database first, without being locked. A new brand is stored
+     * before the transaction starts.
+     *
+     * @param deviceDto contains the updated device information
+     * @param id the ID of the device to be updated
+     * @param version the version the device must have, as returned in its ETag
+     * @return the updated device
+     * @throws ResourceNotFoundException if the device is not found
+     * @throws PreconditionFailedException if the device has another version
+     * @throws DeviceInUseException if the device is currently in use and its name or brand would change
+     */
+    @Override
+    @CachePut(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceDto updateDevice(DeviceDto deviceDto, Long id, Long version) {
+        checkArgument(isNotEmpty(id), "Id cannot be null");
+        checkArgument(isNotEmpty(version), "Version cannot be null");
+        checkArgument(StringUtils.isNoneBlank(deviceDto.getName(), deviceDto.getBrand()) && deviceDto.getState() != null,
+                "Device name, brand and state cannot be empty");
+        try {
+            storeBrand(deviceDto.getBrand());
+            return transactionTemplate.execute(status -> {
+                DeviceDto committed = committedDeviceDto(id);
+                int updatedCount = deviceRepository.updateIfVersionMatches(id, version, deviceDto.getName(),
+                        deviceDto.getBrand(), deviceDto.getState(), LocalDateTime.now(),
+                        auditorAware.getCurrentAuditor().orElse(null));
+                if (updatedCount == 0) {
+                    throw updateFailure(id, version);
+                }
+                DeviceDto before = new DeviceDto(id, committed.getName(), committed.getBrand(), committed.getState(),
+                        version);
+                DeviceDto updated = new DeviceDto(id, deviceDto.getName(),
+                        brandDictionary.intern(deviceDto.getBrand()), deviceDto.getState(), version + 1);
+                eventPublisher.publishEvent(DeviceChangedEvent.updated(before, updated));
+                return updated;
+            });
+        } catch (DataAccessException ex) {
+            throw new DatabaseException("Device");
+        }
+    }
+
+    /**
+     * Moves many devices to the same state, given either by their IDs or by a brand and/or state filter.
+     * Devices are changed in chunks of {@link DevicesConstants#STATE_CHANGE_BATCH_SIZE}, each chunk in
+     * a transaction of its own that locks the chunk and updates it with a single
+     * {@code UPDATE ... WHERE device_id IN (...)} statement, so a maintenance window changing thousands
+     * of devices neither sends one statement per device nor holds all their locks at once.
+     * Devices in use are left unchanged, as only their holder may release them, and no device can be
+     * put in use this way, as devices are claimed one at a time by checking them out.
+     *
+     * @param stateChange the new state, and the IDs or the filter of the devices to change
+     * @return the number of devices changed, and of distinct requested IDs left unchanged
+     * @throws IllegalArgumentException if the new state is missing or in use, or if the devices are
+     *         given both or neither by ID and by filter
+     */
+    @Override
+    public DeviceStateChangeResultDto changeDeviceStates(DeviceStateChangeDto stateChange) {
+        State state = stateChange.getState();
+        checkArgument(state != null, "State cannot be null");
+        checkArgument(state != State.IN_USE, "Devices can only be put in use by checking them out");
+        List<Long> ids = stateChange.getIds();
+        boolean byIds = ids != null && !ids.isEmpty();
+        String brand = StringUtils.isNotBlank(stateChange.getBrand()) ? stateChange.getBrand() : null;
+        State currentState = stateChange.getCurrentState();
+        checkArgument(byIds != (brand != null || currentState != null),
+                "Devices must be given either by IDs or by a brand and/or state filter");
+        int chunkSize = DevicesConstants.STATE_CHANGE_BATCH_SIZE;
+        long updated = 0;
+        if (byIds) {
+            List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+            for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+                updated += changeStates(DeviceSpecifications.idIn(chunk), state, chunkSize).size();
+            }
+            return new DeviceStateChangeResultDto(updated, distinctIds.size() - updated);
+        }
+        Specification<Device> filter = DeviceSpecifications.byBrandAndState(brandSpellings(brand),
+                currentState != null ? currentState.name() : null);
+        List<Long> changed;
+        Long afterId = 0L;
+        do {
+            // Changed devices leave the filter only if it is on state, so move past them by ID.
+            changed = changeStates(filter.and(DeviceSpecifications.idGreaterThan(afterId)), state, chunkSize);
+            updated += changed.size();
+            if (!changed.isEmpty()) {
+                afterId = changed.get(changed.size() - 1);
+            }
+        } while (changed.size() == chunkSize);
+        return new DeviceStateChangeResultDto(updated, 0);
+    }
+
+    // Locks up to limit devices matching the specification that can move to the state, moves them in one
+    // statement, and publishes their changes, in a transaction of its own. Evicts them once committed,
+    // and returns their IDs in ascending order.
+    private List<Long> changeStates(Specification<Device> specification, State state, int limit) {
+        List<Long> changedIds;
+        try {
+            changedIds = transactionTemplate.execute(status -> {
+                List<Device> devices = deviceRepository.lockDevices(
+                        specification.and(DeviceSpecifications.stateChangeableTo(state)), limit);
+                if (devices.isEmpty()) {
+                    return List.of();
+                }
+                List<Long> lockedIds = devices.stream().map(Device::getId).toList();
+                deviceRepository.updateStates(lockedIds, state, LocalDateTime.now(),
+                        auditorAware.getCurrentAuditor().orElse(null));
+                for (Device device : devices) {
+                    DeviceDto before = DeviceMapper.mapToDeviceDto(device);
+                    DeviceDto after = new DeviceDto(before.getId(), before.getName(), before.getBrand(), state,
+                            before.getVersion() + 1);
+                    eventPublisher.publishEvent(DeviceChangedEvent.updated(before, after));
+                }
+                return lockedIds;
+            });
+        } catch (DataAccessException ex) {
+            throw new DatabaseException("Device");
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        if (cache != null) {
+            changedIds.forEach(cache::evict);
+        }
+        return changedIds;
+    }
+
+    // Validates the given device and returns the violation messages, or null if it is valid.
+    private String validate(DeviceDto deviceDto) {
+        if (deviceDto == null) {
+            return "Device cannot be null";
+        }
+        Set<ConstraintViolation<DeviceDto>> violations = validator.validate(deviceDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // Inserts a chunk of devices as one batch, records the result of each one, and resets the chunk.
+    private void saveChunk(List<Device> chunk, List<Integer> chunkIndexes, List<DeviceBatchResultDto> results) {
+        try {
+            chunk.forEach(device -> storeBrand(device.getBrand()));
+            deviceRepository.saveAll(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new DeviceBatchResultDto(chunkIndexes.get(i), DevicesConstants.STATUS_201,
+                        DevicesConstants.MESSAGE_201, chunk.get(i).getId()));
+                eventPublisher.publishEvent(DeviceChangedEvent.created(DeviceMapper.mapToDeviceDto(chunk.get(i))));
+            }
+        } catch (DataAccessException ex) {
+            String message = new DatabaseException("Device").getMessage();
+            for (Integer chunkIndex : chunkIndexes) {
+                results.add(new DeviceBatchResultDto(chunkIndex, DevicesConstants.STATUS_500, message, null));
+            }
         }
+        // Detach the inserted devices so the persistence context does not grow with the batch.
+        entityManager.clear();
+        chunk.clear();
+        chunkIndexes.clear();
     }
 
-    // Retrieves a list of devices filtered by the specified brand and state.
-    private List<Device> findByFiltersBrandAndState(String brand, String state) {
-        Specification<Device> specification = Specification.where(null);
+    /**
+     * Claims an available device, of the given brand if any, by putting it in use.
+     * The device is selected and locked with {@code FOR UPDATE SKIP LOCKED}, so concurrent
+     * checkouts never wait on each other nor claim the same device.
+     *
+     * @param brand the brand of the device to claim, or null for any brand
+     * @return the claimed device, now in use
+     * @throws DeviceNotAvailableException if no device is available
+     */
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.DEVICES_CACHE, key = "#result.id")
+    public DeviceDto checkoutDevice(String brand) {
+        String brandFilter = StringUtils.isNotBlank(brand) ? brand : null;
+        Optional<Device> available;
+        try {
+            if (brandFilter == null) {
+                available = deviceRepository.lockAvailableDevice();
+            } else {
+                List<Integer> brandIds = brandSpellings(brandFilter).stream()
+                        .map(brandDictionary::knownIdOf)
+                        .toList();
+                available = brandIds.isEmpty() ? Optional.empty() : deviceRepository.lockAvailableDeviceByBrand(brandIds);
+            }
+        } catch (DataAccessException ex) {
+            throw new DatabaseException("Device");
+        }
+        Device device = available.orElseThrow(
+                () -> new DeviceNotAvailableException("Device", "brand", brandFilter != null ? brandFilter : "any")
+        );
+        DeviceDto before = DeviceMapper.mapToDeviceDto(device);
+        device.setState(State.IN_USE);
+        try {
+            deviceRepository.saveAndFlush(device);
+        } catch (DataAccessException ex) {
+            throw new DatabaseException("Device");
+        }
+        DeviceDto checkedOut = DeviceMapper.mapToDeviceDto(device);
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(before, checkedOut));
+        return checkedOut;
+    }
+
+    /**
+     * Releases a device in use, making it available again. The device is read and locked first,
+     * so the change published for it starts from the device as stored, then updated with a single
+     * statement that only updates the device if it is still in use.
+     *
+     * @param id the ID of the device to release
+     * @return the released device, now available
+     * @throws ResourceNotFoundException if the device is not found
+     * @throws DeviceNotInUseException if the device is not in use
+     */
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.DEVICES_CACHE, key = "#id")
+    public DeviceDto releaseDevice(Long id) {
+        checkArgument(isNotEmpty(id), "Id cannot be null");
+        DeviceDto before;
+        try {
+            before = lockDeviceDto(id);
+            if (deviceRepository.updateStateIfCurrent(id, State.IN_USE, State.AVAILABLE, LocalDateTime.now(),
+                    auditorAware.getCurrentAuditor().orElse(null)) == 0) {
+                throw new DeviceNotInUseException("Device", "id", id);
+            }
+        } catch (DataAccessException ex) {
+            throw new DatabaseException("Device");
+        }
+        DeviceDto released = new DeviceDto(id, before.getName(), before.getBrand(), State.AVAILABLE,
+                before.getVersion() + 1);
+        eventPublisher.publishEvent(DeviceChangedEvent.updated(before, released));
+        return released;
+    }
+
+    // Reads and locks the device until the transaction ends, detached so the statements changing it
+    // afterwards cannot leave a stale copy in the persistence context.
+    private DeviceDto lockDeviceDto(Long id) {
+        Device device = deviceRepository.lockDeviceById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Device", "id", id)
+        );
+        entityManager.detach(device);
+        DeviceDto deviceDto = DeviceMapper.mapToDeviceDto(device);
+        deviceDto.setBrand(brandDictionary.intern(deviceDto.getBrand()));
+        return deviceDto;
+    }
+
+    // Runs the action in a read-only transaction of its own, which a replica serves when there is one.
+    private <T> T executeReadOnly(TransactionCallback<T> action) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(action);
+    }
+
+    // Stores the brand of a device about to be written before its transaction starts, so the converter
+    // only maps known brands and the transaction never waits for a second connection to store one.
+    private void storeBrand(String brand) {
         if (StringUtils.isNotBlank(brand)) {
-            specification = specification.and((root, query, cb) -> cb.equal(root.get("brand"), brand));
+            brandDictionary.idOf(brand);
+        }
+    }
+
+    // Returns the stored spellings of the brand to filter by, or null to include all brands.
+    private List<String> brandSpellings(String brand) {
+        return StringUtils.isNotBlank(brand) ? brandDictionary.spellingsOf(brand) : null;
+    }
+
+    // Returns the device as last committed, from the cache, or else from the state index without its name,
+    // and reads it from the database only if neither holds it.
+    private DeviceDto committedDeviceDto(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.DEVICES_CACHE);
+        DeviceDto cached = cache != null ? cache.get(id, DeviceDto.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+        DeviceDto indexed = deviceStateIndex.find(id);
+        if (indexed != null) {
+            return indexed;
         }
-        if (StringUtils.isNotBlank(state)) {
-            specification = specification.and((root, query, cb) -> cb.equal(root.get("state"), state));
+        return deviceRepository.findDeviceDtoById(id).orElseThrow(
+                () -> new ResourceNotFoundException("Device", "id", id)
+        );
+    }
+
+    // Reads the device a conditional update did not change, to explain why: it does not exist,
+    // has another version, or is in use.
+    private RuntimeException updateFailure(Long id, Long version) {
+        DeviceDto current = deviceRepository.findDeviceDtoById(id).orElse(null);
+        if (current == null) {
+            return new ResourceNotFoundException("Device", "id", id);
+        }
+        if (!version.equals(current.getVersion())) {
+            return new PreconditionFailedException("Device", "id", id);
+        }
+        return new DeviceInUseException("Device", "id", id);
+    }
+
+     // Checks if the given device is in use and throws a DeviceInUseException if that's the case.
+    private static void checkNotInUse(State device, Long deviceDto) {
+        if (device == State.IN_USE) {
+            throw new DeviceInUseException("Device", "id", deviceDto);
         }
-        return deviceRepository.findAll(specification);
     }
 }
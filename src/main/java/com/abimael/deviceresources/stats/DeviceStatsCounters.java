@@ -0,0 +1,109 @@
+package com.abimael.deviceresources.stats;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DeviceStatsDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.BrandStateCount;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters of devices per brand and state.
+ * Seeded from one grouped query at startup, then adjusted on every {@link DeviceChangedEvent},
+ * so counts are answered without querying the database.
+ */
+@Component
+public class DeviceStatsCounters {
+
+    private static final State[] STATES = State.values();
+
+    private final DeviceRepository deviceRepository;
+
+    // Counters of each state, indexed by state ordinal.
+    private final LongAdder[] stateCounters = newCounters();
+
+    // Counters of each brand, indexed by state ordinal.
+    private final ConcurrentMap<String, LongAdder[]> brandCounters = new ConcurrentHashMap<>();
+
+    public DeviceStatsCounters(DeviceRepository deviceRepository) {
+        this.deviceRepository = deviceRepository;
+    }
+
+    /**
+     * Seeds the counters with the devices stored in the database.
+     */
+    @PostConstruct
+    void seed() {
+        for (BrandStateCount count : deviceRepository.countByBrandAndState()) {
+            stateCounters[count.state().ordinal()].add(count.count());
+            brandCounters.computeIfAbsent(count.brand(), brand -> newCounters())[count.state().ordinal()].add(count.count());
+        }
+    }
+
+    /**
+     * Adjusts the counters to a device change, once it is committed.
+     *
+     * @param event the device change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        add(event.before(), -1);
+        add(event.after(), 1);
+    }
+
+    /**
+     * Returns the current number of devices per state, and per brand and state.
+     * Brands without devices are left out.
+     *
+     * @return the device counts
+     */
+    public DeviceStatsDto snapshot() {
+        Map<State, Long> byState = new EnumMap<>(State.class);
+        long total = 0;
+        for (State state : STATES) {
+            long count = stateCounters[state.ordinal()].sum();
+            byState.put(state, count);
+            total += count;
+        }
+        Map<String, Map<State, Long>> byBrandAndState = new TreeMap<>();
+        for (Map.Entry<String, LongAdder[]> entry : brandCounters.entrySet()) {
+            Map<State, Long> brandCounts = new EnumMap<>(State.class);
+            for (State state : STATES) {
+                long count = entry.getValue()[state.ordinal()].sum();
+                if (count != 0) {
+                    brandCounts.put(state, count);
+                }
+            }
+            if (!brandCounts.isEmpty()) {
+                byBrandAndState.put(entry.getKey(), brandCounts);
+            }
+        }
+        return new DeviceStatsDto(total, byState, byBrandAndState);
+    }
+
+    private void add(DeviceDto device, int delta) {
+        if (device != null) {
+            int state = device.getState().ordinal();
+            stateCounters[state].add(delta);
+            brandCounters.computeIfAbsent(device.getBrand(), brand -> newCounters())[state].add(delta);
+        }
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] adders = new LongAdder[STATES.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,45 @@
+package com.abimael.deviceresources.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used to paginate devices by their ID.
+ */
+public final class DeviceCursor {
+
+    private DeviceCursor() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Encodes the given device ID into an opaque cursor.
+     *
+     * @param id the ID of the last device returned in a page
+     * @return the cursor pointing after the given device
+     */
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes the given opaque cursor into a device ID.
+     *
+     * @param cursor the cursor received from a previous page, or null for the first page
+     * @return the ID of the last device of the previous page, or null if no cursor is given
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static Long decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.abimael.deviceresources.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Formats and parses the entity tags identifying the version of a device or of a device list.
+ * The JSON, CBOR and Smile representations of the same version differ byte for byte, so tags of
+ * representations other than JSON end with the subtype of their media type, e.g. {@code "4-cbor"}.
+ */
+public final class DeviceETag {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final char REPRESENTATION_SEPARATOR = '-';
+
+    private DeviceETag() {
+        // Cannot instantiate
+    }
+
+    /**
+     * Formats the given device version into a strong entity tag.
+     *
+     * @param version the version of the device
+     * @return the quoted entity tag
+     */
+    public static String format(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Formats the given device version into the strong entity tag of its given representation.
+     *
+     * @param version the version of the device
+     * @param representation the media type the device is written as
+     * @return the quoted entity tag
+     */
+    public static String format(Long version, MediaType representation) {
+        return "\"" + version + suffix(representation) + "\"";
+    }
+
+    /**
+     * Formats the given version of a device list into the strong entity tag of its given representation.
+     *
+     * @param version the version of the device list
+     * @param representation the media type the list is written as
+     * @return the quoted entity tag
+     */
+    public static String format(String version, MediaType representation) {
+        return "\"" + version + suffix(representation) + "\"";
+    }
+
+    /**
+     * Tells whether the given {@code If-Match} header holds a weak entity tag. {@code If-Match} compares
+     * entity tags strongly, so a weak tag never matches and the request must fail with 412.
+     *
+     * @param ifMatch the value of the header, or null if it is not given
+     * @return true if the header holds a weak entity tag
+     */
+    public static boolean isWeak(String ifMatch) {
+        return ifMatch != null && ifMatch.trim().startsWith(WEAK_PREFIX);
+    }
+
+    /**
+     * Parses the device version required by an {@code If-Match} header holding a strong entity tag.
+     * Every representation of a version holds the same device, so the tag of any of them matches it.
+     *
+     * @param ifMatch the value of the header, or null if it is not given
+     * @return the version the device must have, or null if any version matches
+     * @throws IllegalArgumentException if the header does not hold a single strong device entity tag
+     */
+    public static Long parse(String ifMatch) {
+        if (StringUtils.isBlank(ifMatch) || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        checkArgument(!isWeak(ifMatch), "Weak entity tags cannot be used with If-Match: %s", ifMatch);
+        try {
+            return Long.valueOf(StringUtils.substringBefore(StringUtils.unwrap(ifMatch.trim(), '"'),
+                    REPRESENTATION_SEPARATOR));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid entity tag: " + ifMatch);
+        }
+    }
+
+    // JSON, the default representation, keeps the plain version as its tag.
+    private static String suffix(MediaType representation) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(representation) ? ""
+                : REPRESENTATION_SEPARATOR + representation.getSubtype();
+    }
+}
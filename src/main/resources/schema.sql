@@ -1,10 +1,94 @@
+-- Lookup table of the brands devices reference, see BrandDictionary. A few hundred brands are shared
+-- by all devices, so each row and index entry holds a 4 byte ID instead of a varchar of up to 400 bytes.
+-- Compared as binary, so each spelling is its own brand, as devices stored it before.
+CREATE TABLE IF NOT EXISTS `brand` (
+    `brand_id` int AUTO_INCREMENT PRIMARY KEY,
+    `brand_name` varchar(100) COLLATE utf8mb4_bin NOT NULL,
+    UNIQUE KEY `uk_brand_name` (`brand_name`)
+    );
+
 CREATE TABLE IF NOT EXISTS `device` (
     `device_id` int AUTO_INCREMENT  PRIMARY KEY,
     `device_name` varchar(50) NOT NULL,
-    `device_brand` varchar(100) NOT NULL,
+    `device_brand_id` int NOT NULL,
     `device_state` varchar(20) NOT NULL,
     `created_at` datetime NOT NULL,
     `created_by` varchar(20) NOT NULL,
     `updated_at` datetime DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
-    );
\ No newline at end of file
+    `updated_by` varchar(20) DEFAULT NULL,
+    `version` bigint NOT NULL DEFAULT 0,
+    CONSTRAINT `fk_device_brand` FOREIGN KEY (`device_brand_id`) REFERENCES `brand` (`brand_id`)
+    );
+
+-- Adds the version column to databases created before it existed
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'device' AND column_name = 'version') = 0,
+    'ALTER TABLE `device` ADD COLUMN `version` bigint NOT NULL DEFAULT 0', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Databases created before the brand table must be migrated once with docker-compose/migrations/brand-table.sql
+-- before this version starts, which otherwise fails to create idx_device_brand_id_state.
+
+-- MySQL has no CREATE INDEX IF NOT EXISTS, so each index is created only when missing,
+-- which also adds them to databases created before they existed.
+
+-- Serves filters on brand, and on brand and state
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'device' AND index_name = 'idx_device_brand_id_state') = 0,
+    'CREATE INDEX `idx_device_brand_id_state` ON `device` (`device_brand_id`, `device_state`)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Serves filters on state only
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'device' AND index_name = 'idx_device_state') = 0,
+    'CREATE INDEX `idx_device_state` ON `device` (`device_state`)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Serves lookups of recently updated devices
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'device' AND index_name = 'idx_device_updated_at') = 0,
+    'CREATE INDEX `idx_device_updated_at` ON `device` (`updated_at`)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Append-only history of device changes, see DeviceAuditLog
+CREATE TABLE IF NOT EXISTS `device_audit` (
+    `audit_id` bigint AUTO_INCREMENT PRIMARY KEY,
+    `device_id` bigint NOT NULL,
+    `action` varchar(10) NOT NULL,
+    `before_name` varchar(50) DEFAULT NULL,
+    `before_brand` varchar(100) DEFAULT NULL,
+    `before_state` varchar(20) DEFAULT NULL,
+    `after_name` varchar(50) DEFAULT NULL,
+    `after_brand` varchar(100) DEFAULT NULL,
+    `after_state` varchar(20) DEFAULT NULL,
+    `after_version` bigint DEFAULT NULL,
+    `changed_at` datetime(6) NOT NULL,
+    `changed_by` varchar(100) DEFAULT NULL,
+    `client_id` varchar(100) DEFAULT NULL,
+    INDEX `idx_device_audit_device` (`device_id`, `audit_id`)
+    );
+
+-- Adds the client ID column to audit logs created before it existed
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+               WHERE table_schema = DATABASE() AND table_name = 'device_audit' AND column_name = 'client_id') = 0,
+    'ALTER TABLE `device_audit` ADD COLUMN `client_id` varchar(100) DEFAULT NULL AFTER `changed_by`', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS `device_seq` (
+    `next_val` bigint NOT NULL
+    );
+
+-- Seeds the ID generator past the existing devices, with the allocation size of Device.id as margin
+INSERT INTO `device_seq` (`next_val`)
+    SELECT COALESCE(MAX(`device_id`), 0) + 50 FROM `device`
+    WHERE NOT EXISTS (SELECT 1 FROM `device_seq`);
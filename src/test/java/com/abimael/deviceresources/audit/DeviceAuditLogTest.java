@@ -0,0 +1,218 @@
+package com.abimael.deviceresources.audit;
+
+import com.abimael.deviceresources.constants.DevicesConstants;
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceAuditRepository;
+import com.abimael.deviceresources.util.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DeviceAuditLog}.
+ * Verifies changes are written in batches by size or time, counted when dropped or failed,
+ * and attributed to the authenticated caller.
+ */
+class DeviceAuditLogTest {
+
+    @Mock
+    private DeviceAuditRepository deviceAuditRepository;
+
+    @Mock
+    private AuditorAware<String> auditorAware;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AutoCloseable autoCloseable;
+
+    private DeviceAuditLog auditLog;
+
+    /**
+     * Initialize the Mockito annotations.
+     */
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.of("Device_MS"));
+    }
+
+    /**
+     * Stop the audit log if it was started, and clean up the mocks.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        if (auditLog.isRunning()) {
+            auditLog.stop();
+        }
+        autoCloseable.close();
+    }
+
+    /**
+     * This test verifies that a full batch is written without waiting for the flush interval.
+     */
+    @Test
+    void shouldWriteFullBatches() {
+        auditLog = newAuditLog(100, 2, Duration.ofMinutes(1));
+        auditLog.start();
+
+        for (long id = 1; id <= 4; id++) {
+            auditLog.onDeviceChanged(DeviceChangedEvent.created(device(id, State.AVAILABLE)));
+        }
+
+        ArgumentCaptor<List<DeviceAuditRecord>> batches = captor();
+        verify(deviceAuditRepository, timeout(5000).times(2)).insertAll(batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).size());
+        assertEquals(2, batches.getAllValues().get(1).size());
+    }
+
+    /**
+     * This test verifies that a partial batch is written once the flush interval elapses,
+     * with the change and its caller.
+     */
+    @Test
+    void shouldWritePartialBatchAfterFlushInterval() {
+        auditLog = newAuditLog(100, 100, Duration.ofMillis(50));
+        auditLog.start();
+
+        auditLog.onDeviceChanged(DeviceChangedEvent.updated(device(1L, State.AVAILABLE), device(1L, State.IN_USE)));
+
+        ArgumentCaptor<List<DeviceAuditRecord>> batch = captor();
+        verify(deviceAuditRepository, timeout(5000)).insertAll(batch.capture());
+        DeviceAuditRecord record = batch.getValue().get(0);
+        assertEquals("UPDATED", record.action());
+        assertEquals(State.IN_USE, record.after().getState());
+        assertEquals("Device_MS", record.changedBy());
+    }
+
+    /**
+     * This test verifies that the changes still queued when the audit log stops are written.
+     */
+    @Test
+    void shouldWriteQueuedChangesOnStop() {
+        auditLog = newAuditLog(100, 100, Duration.ofMinutes(1));
+        auditLog.start();
+
+        for (long id = 1; id <= 3; id++) {
+            auditLog.onDeviceChanged(DeviceChangedEvent.deleted(device(id, State.INACTIVE)));
+        }
+        auditLog.stop();
+
+        ArgumentCaptor<List<DeviceAuditRecord>> batch = captor();
+        verify(deviceAuditRepository).insertAll(batch.capture());
+        assertEquals(3, batch.getValue().size());
+    }
+
+    /**
+     * This test verifies that changes are dropped and counted once the queue is full.
+     */
+    @Test
+    void shouldDropChangesWhenQueueIsFull() {
+        auditLog = newAuditLog(1, 100, Duration.ofMinutes(1));
+
+        auditLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+        auditLog.onDeviceChanged(DeviceChangedEvent.created(device(2L, State.AVAILABLE)));
+
+        assertEquals(1, registry.get("devices.audit.queue.size").gauge().value());
+        assertEquals(1, registry.get("devices.audit.records").tag("outcome", "dropped").functionCounter().count());
+        verify(deviceAuditRepository, never()).insertAll(any());
+    }
+
+    /**
+     * This test verifies that a batch rejected by the database is counted as failed.
+     */
+    @Test
+    void shouldCountFailedBatches() {
+        doThrow(new DataAccessResourceFailureException("Database down")).when(deviceAuditRepository).insertAll(any());
+        auditLog = newAuditLog(100, 1, Duration.ofMinutes(1));
+        auditLog.start();
+
+        auditLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+        auditLog.stop();
+
+        assertEquals(1, registry.get("devices.audit.records").tag("outcome", "failed").functionCounter().count());
+        assertEquals(0, registry.get("devices.audit.records").tag("outcome", "written").functionCounter().count());
+    }
+
+    /**
+     * This test verifies that a batch failing with any exception is counted as failed,
+     * and that the writer keeps writing the next changes.
+     */
+    @Test
+    void shouldKeepWritingAfterUnexpectedFailure() {
+        doThrow(new IllegalStateException("Unexpected")).doNothing().when(deviceAuditRepository).insertAll(any());
+        auditLog = newAuditLog(100, 1, Duration.ofMinutes(1));
+        auditLog.start();
+
+        auditLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+        auditLog.onDeviceChanged(DeviceChangedEvent.created(device(2L, State.AVAILABLE)));
+        auditLog.stop();
+
+        verify(deviceAuditRepository, times(2)).insertAll(any());
+        assertEquals(1, registry.get("devices.audit.records").tag("outcome", "failed").functionCounter().count());
+        assertEquals(1, registry.get("devices.audit.records").tag("outcome", "written").functionCounter().count());
+    }
+
+    /**
+     * This test verifies that the caller is the authenticated user of the request, and that the
+     * client ID it claims in its header is recorded apart.
+     */
+    @Test
+    void shouldRecordAuthenticatedUserAndClaimedClientId() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteUser("alice");
+        request.addHeader(DevicesConstants.CLIENT_ID_HEADER, "admin");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        auditLog = newAuditLog(100, 100, Duration.ofMinutes(1));
+        auditLog.start();
+        try {
+            auditLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        auditLog.stop();
+
+        ArgumentCaptor<List<DeviceAuditRecord>> batch = captor();
+        verify(deviceAuditRepository).insertAll(batch.capture());
+        assertEquals("alice", batch.getValue().get(0).changedBy());
+        assertEquals("admin", batch.getValue().get(0).clientId());
+    }
+
+    private DeviceAuditLog newAuditLog(int queueCapacity, int batchSize, Duration flushInterval) {
+        DeviceAuditLog log = new DeviceAuditLog(deviceAuditRepository, auditorAware, queueCapacity, batchSize,
+                flushInterval, Duration.ZERO);
+        log.bindTo(registry);
+        return log;
+    }
+
+    private static DeviceDto device(Long id, State state) {
+        return new DeviceDto(id, "Device " + id, "Brand", state, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<DeviceAuditRecord>> captor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.abimael.deviceresources.changes;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.util.State;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link DeviceChangeLog}.
+ * Verifies changes are numbered, serialized once, read after a sequence, awaited, and lost once overwritten.
+ */
+class DeviceChangeLogTest {
+
+    private final DeviceChangeLog changeLog = new DeviceChangeLog(new ObjectMapper(), 4);
+
+    /**
+     * This test verifies that changes are read in order after the given sequence.
+     */
+    @Test
+    void shouldReadChangesAfterSequence() throws InterruptedException {
+        changeLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+        changeLog.onDeviceChanged(DeviceChangedEvent.updated(device(1L, State.AVAILABLE), device(1L, State.IN_USE)));
+        changeLog.onDeviceChanged(DeviceChangedEvent.deleted(device(2L, State.INACTIVE)));
+
+        List<DeviceChangeEntry> changes = changeLog.awaitAfter(1, Duration.ZERO);
+
+        assertEquals(2, changes.size());
+        assertEquals(2, changes.get(0).change().getSequence());
+        assertEquals("UPDATED", changes.get(0).change().getAction());
+        assertEquals(3, changes.get(1).change().getSequence());
+        assertEquals("DELETED", changes.get(1).change().getAction());
+    }
+
+    /**
+     * This test verifies that a change is serialized once with the action it was published with,
+     * and keyed by its brand as the database compares it.
+     */
+    @Test
+    void shouldSerializeChangeOnceWithItsAction() throws Exception {
+        changeLog.onDeviceChanged(DeviceChangedEvent.created(
+                new DeviceDto(1L, "Device 1", "Nokiá", State.AVAILABLE, 0L)));
+
+        DeviceChangeEntry change = changeLog.awaitAfter(0, Duration.ZERO).get(0);
+
+        assertEquals(new ObjectMapper().writeValueAsString(change.change()), change.data());
+        assertEquals("CREATED", change.change().getAction());
+        assertNull(change.beforeBrandKey(), "A created device has no brand before the change");
+        assertEquals("nokia", change.afterBrandKey());
+        assertSame(change, changeLog.awaitAfter(0, Duration.ZERO).get(0), "Every reader should get the same entry");
+    }
+
+    /**
+     * This test verifies that an event whose devices do not fit its action is rejected.
+     */
+    @Test
+    void shouldRejectChangeNotFittingItsAction() {
+        assertThrows(IllegalArgumentException.class, () -> new DeviceChangedEvent(DeviceChangedEvent.Action.UPDATED,
+                null, device(1L, State.AVAILABLE)));
+        assertThrows(IllegalArgumentException.class, () -> DeviceChangedEvent.created(null));
+    }
+
+    /**
+     * This test verifies that reading after an overwritten change reports the gap.
+     */
+    @Test
+    void shouldReportOverwrittenChanges() throws InterruptedException {
+        for (long id = 1; id <= 6; id++) {
+            changeLog.onDeviceChanged(DeviceChangedEvent.created(device(id, State.AVAILABLE)));
+        }
+
+        assertNull(changeLog.awaitAfter(1, Duration.ZERO), "Changes 2 and 3 were overwritten");
+        assertEquals(4, changeLog.awaitAfter(2, Duration.ZERO).size(), "Changes 3 to 6 are still buffered");
+    }
+
+    /**
+     * This test verifies that a reader waiting for changes wakes up once one is appended,
+     * and gets none if the wait times out.
+     */
+    @Test
+    void shouldAwaitNextChange() throws Exception {
+        assertTrue(changeLog.awaitAfter(0, Duration.ofMillis(10)).isEmpty());
+
+        CompletableFuture<List<DeviceChangeEntry>> next = CompletableFuture.supplyAsync(() -> {
+            try {
+                return changeLog.awaitAfter(0, Duration.ofSeconds(10));
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        changeLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+
+        assertEquals(1, next.get(5, TimeUnit.SECONDS).size());
+    }
+
+    /**
+     * This test verifies that only event IDs of this run, up to the last change, are parsed.
+     */
+    @Test
+    void shouldParseEventIdsOfThisRunOnly() {
+        changeLog.onDeviceChanged(DeviceChangedEvent.created(device(1L, State.AVAILABLE)));
+
+        assertEquals(1L, changeLog.parseEventId(changeLog.eventId(1)));
+        assertNull(changeLog.parseEventId(changeLog.eventId(2)), "Change 2 does not exist yet");
+        assertNull(changeLog.parseEventId("0-1"), "Event ID of a previous run");
+        assertNull(changeLog.parseEventId("garbage"));
+    }
+
+    private static DeviceDto device(Long id, State state) {
+        return new DeviceDto(id, "Device " + id, "Brand", state, 0L);
+    }
+}
@@ -2,21 +2,31 @@ package com.abimael.deviceresources.controller;
 
 import com.abimael.deviceresources.dto.DeviceDto;
 import com.abimael.deviceresources.util.State;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 
+import java.io.IOException;
 import java.util.List;
 
+import static io.restassured.RestAssured.get;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Integration tests for the {@link DeviceController} REST API.
@@ -82,6 +92,35 @@ public class DeviceControllerTest {
                 .statusCode(400);
     }
 
+    /**
+     * Test the POST endpoint for creating devices in batch, with one invalid device.
+     */
+    @Test
+    @DisplayName("POST /api/devices/batch - Create devices in batch")
+    void testCreateDevicesInBatch() {
+        DeviceDto device = new DeviceDto();
+        device.setName("Test Device");
+        device.setBrand("Test Brand");
+        device.setState(State.AVAILABLE);
+
+        DeviceDto deviceWithoutName = new DeviceDto();
+        deviceWithoutName.setBrand("Test Brand");
+        deviceWithoutName.setState(State.AVAILABLE);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(device, deviceWithoutName, device))
+        .when()
+                .post("/api/devices/batch")
+        .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("[0].code", equalTo("201"))
+                .body("[0].id", notNullValue())
+                .body("[1].code", equalTo("400"))
+                .body("[2].code", equalTo("201"));
+    }
+
     /**
      * Tests the GET endpoint for fetching all devices.
      */
@@ -197,6 +236,132 @@ public class DeviceControllerTest {
         }
     }
 
+    /**
+     * Tests the GET endpoint for fetching devices page by page with a cursor.
+     */
+    @Test
+    @DisplayName("GET /api/devices?limit={limit}&after={cursor} - Fetch devices page by page")
+    void testFetchPage() {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("Test Device");
+        deviceDto.setBrand("Motorola");
+        deviceDto.setState(State.AVAILABLE);
+
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(deviceDto)
+                    .when()
+                    .post("/api/devices")
+                    .then()
+                    .statusCode(201);
+        }
+
+        String nextCursor =
+                given()
+                        .contentType(ContentType.JSON)
+                .when()
+                        .get("/api/devices?brand=Motorola&limit=2")
+                .then()
+                        .statusCode(200)
+                        .body("devices.size()", equalTo(2))
+                        .body("nextCursor", notNullValue())
+                        .extract()
+                        .path("nextCursor");
+
+        List<DeviceDto> devices =
+                given()
+                        .contentType(ContentType.JSON)
+                .when()
+                        .get("/api/devices?brand=Motorola&limit=2&after={cursor}", nextCursor)
+                .then()
+                        .statusCode(200)
+                        .extract()
+                        .body()
+                        .jsonPath()
+                        .getList("devices", DeviceDto.class);
+        assertFalse(devices.isEmpty(), "Second page should have one or more elements");
+        for (DeviceDto device : devices) {
+            assertEquals("Motorola", device.getBrand(), "Device brand should be Motorola");
+        }
+    }
+
+    /**
+     * Tests the GET endpoint for searching devices by a part of their name, ignoring case,
+     * filtered by state, page by page with a cursor, and rejecting a text too short.
+     */
+    @Test
+    @DisplayName("GET /api/devices/search?q={text} - Search devices by name")
+    void testSearchDevices() {
+        String name = "Search Device " + System.nanoTime();
+        String first = createDevice(name + " A", "Search Brand", State.AVAILABLE);
+        String second = createDevice(name + " B", "Search Brand", State.AVAILABLE);
+        createDevice(name + " C", "Search Brand", State.INACTIVE);
+
+        String nextCursor =
+                given()
+                .when()
+                        .get("/api/devices/search?q={q}&state=AVAILABLE&limit=1", name.toUpperCase())
+                .then()
+                        .statusCode(200)
+                        .body("devices.size()", equalTo(1))
+                        .body("devices[0].id", equalTo(Integer.parseInt(first)))
+                        .body("nextCursor", notNullValue())
+                        .extract()
+                        .path("nextCursor");
+
+        given()
+                .when()
+                .get("/api/devices/search?q={q}&state=AVAILABLE&limit=1&after={cursor}", name, nextCursor)
+                .then()
+                .statusCode(200)
+                .body("devices.size()", equalTo(1))
+                .body("devices[0].id", equalTo(Integer.parseInt(second)))
+                .body("nextCursor", nullValue());
+
+        given()
+                .when()
+                .get("/api/devices/search?q=ab")
+                .then()
+                .statusCode(400);
+    }
+
+    /**
+     * Tests the GET endpoint for exporting devices as newline-delimited JSON.
+     */
+    @Test
+    @DisplayName("GET /api/devices/export?brand={brand} - Export devices as NDJSON")
+    void testExport() {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("Test Device");
+        deviceDto.setBrand("Nokia");
+        deviceDto.setState(State.AVAILABLE);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(deviceDto)
+                .when()
+                .post("/api/devices")
+                .then()
+                .statusCode(201);
+
+        String body =
+                given()
+                .when()
+                        .get("/api/devices/export?brand=Nokia")
+                .then()
+                        .statusCode(200)
+                        .contentType("application/x-ndjson")
+                        .extract()
+                        .asString();
+        String[] lines = body.split("\n");
+        assertFalse(lines.length == 0 || lines[0].isBlank(), "Export should have one or more lines");
+        for (String line : lines) {
+            DeviceDto device = JsonPath.from(line).getObject(".", DeviceDto.class);
+            assertEquals("Nokia", device.getBrand(), "Device brand should be Nokia");
+        }
+    }
+
     /**
      * Tests the GET endpoint for fetching a device by its ID.
      */
@@ -235,6 +400,64 @@ public class DeviceControllerTest {
         assertEquals(State.IN_USE, device.getState(), "Device state should be IN_USE");
     }
 
+    /**
+     * Tests that fetching the same device twice is served from the cache the second time.
+     */
+    @Test
+    @DisplayName("GET /api/devices/cache/stats - Count cache hits of devices fetched by id")
+    void testFetchByIdIsCached() {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("Test Device");
+        deviceDto.setBrand("Lenovo");
+        deviceDto.setState(State.AVAILABLE);
+
+        String location =
+                given()
+                        .contentType(ContentType.JSON)
+                        .body(deviceDto)
+                .when()
+                        .post("/api/devices")
+                .then()
+                        .statusCode(201)
+                        .extract()
+                        .header("Location");
+
+        String[] parts = location.split("/");
+        String id = parts[parts.length - 1];
+
+        long hitsBefore = given().when().get("/api/devices/cache/stats").then().statusCode(200)
+                .extract().jsonPath().getLong("hitCount");
+
+        given().when().get("/api/devices/{id}", id).then().statusCode(200);
+
+        long hitsAfter = given().when().get("/api/devices/cache/stats").then().statusCode(200)
+                .extract().jsonPath().getLong("hitCount");
+        assertTrue(hitsAfter > hitsBefore, "Device created should be served from the cache");
+    }
+
+    /**
+     * Tests that fetching the same list twice is served from the list cache the second time,
+     * and that a device added to the list is listed right away.
+     */
+    @Test
+    @DisplayName("GET /api/devices/lists/cache/stats - Count cache hits of device lists")
+    void testFetchBrandIsCachedUntilChanged() {
+        String brand = "LIST BRAND " + System.nanoTime();
+        createDevice("LIST DEVICE 1", brand, State.AVAILABLE);
+
+        get("/api/devices?brand={brand}", brand).then().statusCode(200).body("size()", equalTo(1));
+        long hitsBefore = get("/api/devices/lists/cache/stats").then().statusCode(200)
+                .extract().jsonPath().getLong("hitCount");
+
+        get("/api/devices?brand={brand}", brand).then().statusCode(200).body("size()", equalTo(1));
+        long hitsAfter = get("/api/devices/lists/cache/stats").then().statusCode(200)
+                .extract().jsonPath().getLong("hitCount");
+        assertTrue(hitsAfter > hitsBefore, "Unchanged list should be served from the cache");
+
+        createDevice("LIST DEVICE 2", brand.toLowerCase(), State.AVAILABLE);
+        get("/api/devices?brand={brand}", brand).then().statusCode(200).body("size()", equalTo(2));
+    }
+
     /**
      * Test the DELETE endpoint for deleting a device by its ID.
      */
@@ -383,4 +606,303 @@ public class DeviceControllerTest {
                 .then()
                 .statusCode(200);
     }
+
+    /**
+     * This test creates a new device, updates it with the ETag returned when fetching it,
+     * and verifies that an update with the weak form of its current ETag, or with the same,
+     * now stale, ETag fails with 412.
+     */
+    @Test
+    @DisplayName("PUT /api/devices/{id} - Update a device only if its ETag matches")
+    void testUpdateDeviceWithIfMatch() {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("DEVICE TO BE UPDATED IF MATCH");
+        deviceDto.setBrand("BRAND TO BE UPDATED IF MATCH");
+        deviceDto.setState(State.AVAILABLE);
+
+        String location =
+                given()
+                        .contentType(ContentType.JSON)
+                        .body(deviceDto)
+                        .when()
+                        .post("/api/devices")
+                        .then()
+                        .statusCode(201)
+                        .extract()
+                        .header("Location");
+
+        String[] parts = location.split("/");
+        String id = parts[parts.length - 1];
+
+        String etag =
+                given()
+                        .when()
+                        .get("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        assertNotNull(etag, "ETag should be returned");
+
+        deviceDto.setState(State.IN_USE);
+
+        String updatedEtag =
+                given()
+                        .contentType(ContentType.JSON)
+                        .header("If-Match", etag)
+                        .body(deviceDto)
+                        .when()
+                        .put("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        assertNotEquals(etag, updatedEtag, "ETag should change after an update");
+
+        deviceDto.setState(State.INACTIVE);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/" + updatedEtag)
+                .body(deviceDto)
+                .when()
+                .put("/api/devices/{id}", id)
+                .then()
+                .statusCode(412);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(deviceDto)
+                .when()
+                .put("/api/devices/{id}", id)
+                .then()
+                .statusCode(412);
+    }
+
+    /**
+     * This test fetches a device and a list filtered by its brand, verifies that both answer 304
+     * when fetched again with their ETag, and that both answer 200 again once the device changes.
+     */
+    @Test
+    @DisplayName("GET /api/devices - Answer 304 while a device and its list are unchanged")
+    void testFetchDevicesIfNoneMatch() {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("DEVICE TO BE FETCHED IF NONE MATCH");
+        deviceDto.setBrand("BRAND TO BE FETCHED IF NONE MATCH");
+        deviceDto.setState(State.AVAILABLE);
+
+        String location =
+                given()
+                        .contentType(ContentType.JSON)
+                        .body(deviceDto)
+                        .when()
+                        .post("/api/devices")
+                        .then()
+                        .statusCode(201)
+                        .extract()
+                        .header("Location");
+
+        String[] parts = location.split("/");
+        String id = parts[parts.length - 1];
+
+        String deviceEtag =
+                given()
+                        .when()
+                        .get("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        String listEtag =
+                given()
+                        .queryParam("brand", deviceDto.getBrand())
+                        .when()
+                        .get("/api/devices")
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        assertNotNull(listEtag, "List ETag should be returned");
+
+        given()
+                .header("If-None-Match", deviceEtag)
+                .when()
+                .get("/api/devices/{id}", id)
+                .then()
+                .statusCode(304);
+        given()
+                .queryParam("brand", deviceDto.getBrand())
+                .header("If-None-Match", listEtag)
+                .when()
+                .get("/api/devices")
+                .then()
+                .statusCode(304);
+
+        deviceDto.setState(State.INACTIVE);
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", deviceEtag)
+                .body(deviceDto)
+                .when()
+                .put("/api/devices/{id}", id)
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("If-None-Match", deviceEtag)
+                .when()
+                .get("/api/devices/{id}", id)
+                .then()
+                .statusCode(200);
+        given()
+                .queryParam("brand", deviceDto.getBrand())
+                .header("If-None-Match", listEtag)
+                .when()
+                .get("/api/devices")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1));
+    }
+
+    /**
+     * This test creates a device from a CBOR payload, fetches it as Smile,
+     * and verifies that both binary representations carry the same device, and that the Smile
+     * representation is tagged apart from the JSON one.
+     */
+    @Test
+    @DisplayName("POST /api/devices - Exchange devices as CBOR and Smile")
+    void testCreateAndFetchDeviceInBinaryFormats() throws IOException {
+        DeviceDto deviceDto = new DeviceDto();
+        deviceDto.setName("DEVICE IN BINARY FORMATS");
+        deviceDto.setBrand("BRAND IN BINARY FORMATS");
+        deviceDto.setState(State.AVAILABLE);
+
+        String location =
+                given()
+                        .contentType("application/cbor")
+                        .body(new ObjectMapper(new CBORFactory()).writeValueAsBytes(deviceDto))
+                        .when()
+                        .post("/api/devices")
+                        .then()
+                        .statusCode(201)
+                        .extract()
+                        .header("Location");
+
+        String[] parts = location.split("/");
+        String id = parts[parts.length - 1];
+
+        byte[] body =
+                given()
+                        .accept("application/x-jackson-smile")
+                        .when()
+                        .get("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .contentType("application/x-jackson-smile")
+                        .extract()
+                        .asByteArray();
+        DeviceDto device = new ObjectMapper(new SmileFactory()).readValue(body, DeviceDto.class);
+        assertEquals(Long.valueOf(id), device.getId());
+        assertEquals(deviceDto.getName(), device.getName());
+        assertEquals(deviceDto.getBrand(), device.getBrand());
+        assertEquals(deviceDto.getState(), device.getState());
+
+        String smileEtag =
+                given()
+                        .accept("application/x-jackson-smile")
+                        .when()
+                        .get("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        String jsonEtag =
+                given()
+                        .accept(ContentType.JSON)
+                        .when()
+                        .get("/api/devices/{id}", id)
+                        .then()
+                        .statusCode(200)
+                        .extract()
+                        .header("ETag");
+        assertNotEquals(jsonEtag, smileEtag, "Each representation should have its own ETag");
+
+        given()
+                .accept(ContentType.JSON)
+                .header("If-None-Match", smileEtag)
+                .when()
+                .get("/api/devices/{id}", id)
+                .then()
+                .statusCode(200);
+        given()
+                .accept("application/x-jackson-smile")
+                .header("If-None-Match", smileEtag)
+                .when()
+                .get("/api/devices/{id}", id)
+                .then()
+                .statusCode(304);
+    }
+
+    /**
+     * This test moves the devices of a brand to INACTIVE and back by filter and by ID, and verifies
+     * that the device in use is skipped and that fetching the changed devices by ID, which caches
+     * them, returns their new state.
+     */
+    @Test
+    @DisplayName("PATCH /api/devices/state - Change the state of many devices, skipping devices in use")
+    void testChangeDeviceStates() {
+        String brand = "BULK BRAND " + System.nanoTime();
+        List<String> ids = List.of(
+                createDevice("BULK DEVICE 1", brand, State.AVAILABLE),
+                createDevice("BULK DEVICE 2", brand, State.AVAILABLE),
+                createDevice("BULK DEVICE 3", brand, State.IN_USE));
+        ids.forEach(id -> get("/api/devices/{id}", id).then().statusCode(200));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"state\":\"INACTIVE\",\"brand\":\"" + brand + "\"}")
+                .when()
+                .patch("/api/devices/state")
+                .then()
+                .statusCode(200)
+                .body("updated", equalTo(2))
+                .body("skipped", equalTo(0));
+        get("/api/devices/{id}", ids.get(0)).then().statusCode(200).body("state", equalTo("INACTIVE"));
+        get("/api/devices/{id}", ids.get(2)).then().statusCode(200).body("state", equalTo("IN_USE"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"state\":\"AVAILABLE\",\"ids\":[" + String.join(",", ids) + "]}")
+                .when()
+                .patch("/api/devices/state")
+                .then()
+                .statusCode(200)
+                .body("updated", equalTo(2))
+                .body("skipped", equalTo(1));
+        get("/api/devices/{id}", ids.get(1)).then().statusCode(200).body("state", equalTo("AVAILABLE"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("{\"state\":\"IN_USE\",\"ids\":[" + ids.get(0) + "]}")
+                .when()
+                .patch("/api/devices/state")
+                .then()
+                .statusCode(400);
+    }
+
+    // Creates a device and returns its ID.
+    private static String createDevice(String name, String brand, State state) {
+        String location =
+                given()
+                        .contentType(ContentType.JSON)
+                        .body(new DeviceDto(null, name, brand, state, null))
+                        .when()
+                        .post("/api/devices")
+                        .then()
+                        .statusCode(201)
+                        .extract()
+                        .header("Location");
+        return location.substring(location.lastIndexOf('/') + 1);
+    }
 }
@@ -0,0 +1,95 @@
+package com.abimael.deviceresources.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}.
+ * Uses two embedded H2 databases standing in for the primary and the replica,
+ * each holding a marker row naming it, to verify where each transaction is routed.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Create the primary and replica databases and the routing data source on top of them.
+     */
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(replica)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Clean up the read-your-writes requirement possibly left by a test.
+     */
+    @AfterEach
+    void tearDown() {
+        ReadYourWritesContext.clear();
+    }
+
+    /**
+     * This test verifies that read-only transactions are served by the replica.
+     */
+    @Test
+    void shouldRouteReadOnlyTransactionToReplica() {
+        transactionTemplate.setReadOnly(true);
+        assertEquals("replica", transactionTemplate.execute(status -> marker()), "Read should go to the replica");
+        assertTrue(ReplicaReadContext.isReplicaRead(), "Read should be recorded as served by a replica");
+    }
+
+    /**
+     * This test verifies that read-write transactions are served by the primary.
+     */
+    @Test
+    void shouldRouteReadWriteTransactionToPrimary() {
+        assertEquals("primary", transactionTemplate.execute(status -> marker()), "Write should go to the primary");
+        assertFalse(ReplicaReadContext.isReplicaRead(), "Write should be recorded as served by the primary");
+    }
+
+    /**
+     * This test verifies that read-only transactions are served by the primary
+     * for a client that must read its own writes.
+     */
+    @Test
+    void shouldRouteReadOnlyTransactionToPrimaryWhenPrimaryRequired() {
+        ReadYourWritesContext.requirePrimary();
+        transactionTemplate.setReadOnly(true);
+        assertEquals("primary", transactionTemplate.execute(status -> marker()), "Read should go to the primary");
+        assertFalse(ReplicaReadContext.isReplicaRead(), "Read should be recorded as served by the primary");
+    }
+
+    private String marker() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    // Creates an embedded database holding a marker row with the given name.
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(20))");
+        jdbcTemplate.execute("DELETE FROM marker");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
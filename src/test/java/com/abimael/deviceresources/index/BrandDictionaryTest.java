@@ -0,0 +1,114 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.repository.BrandRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link BrandDictionary}.
+ * Uses an embedded H2 database holding the brand table, to verify brands are stored once,
+ * read back as shared instances, and grouped as the database compares them.
+ */
+class BrandDictionaryTest {
+
+    private BrandRepository brandRepository;
+
+    private BrandDictionary brandDictionary;
+
+    /**
+     * Create an empty brand table and a dictionary loaded from it.
+     */
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:brands;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS brand");
+        jdbcTemplate.execute("CREATE TABLE brand (brand_id int AUTO_INCREMENT PRIMARY KEY, "
+                + "brand_name varchar(100) NOT NULL, CONSTRAINT uk_brand_name UNIQUE (brand_name))");
+        brandRepository = new BrandRepository(dataSource, jdbcTemplate);
+        brandDictionary = new BrandDictionary(brandRepository, Duration.ZERO);
+        brandDictionary.load();
+    }
+
+    /**
+     * This test verifies that a new brand is stored once, and that every copy of it
+     * is interned to the same instance.
+     */
+    @Test
+    void shouldStoreBrandOnceAndInternIt() {
+        int id = brandDictionary.idOf("Apple");
+        assertEquals(id, brandDictionary.idOf(new String("Apple")), "Brand should keep its ID");
+        assertEquals(1, brandRepository.findAll().size(), "Brand should be stored once");
+        String interned = brandDictionary.intern(new String("Apple"));
+        assertSame(interned, brandDictionary.nameOf(id), "Brand should be shared");
+        assertSame(interned, brandDictionary.intern(new String("Apple")), "Brand should be shared");
+        assertNotEquals(id, brandDictionary.idOf("apple"), "Each spelling should be its own brand");
+    }
+
+    /**
+     * This test verifies that the spellings of a brand are found ignoring case and accents.
+     */
+    @Test
+    void shouldFindSpellingsIgnoringCaseAndAccents() {
+        brandDictionary.idOf("Apple");
+        brandDictionary.idOf("APPLÉ");
+        brandDictionary.idOf("Nokia");
+        assertEquals(List.of("Apple", "APPLÉ"), brandDictionary.spellingsOf("apple"));
+        assertEquals(List.of(), brandDictionary.spellingsOf("Samsung"));
+    }
+
+    /**
+     * This test verifies that brands stored by another dictionary are loaded at startup,
+     * or found when stored afterwards, and that reading a brand never queries the database.
+     */
+    @Test
+    void shouldReadBrandsStoredElsewhere() {
+        int apple = brandDictionary.idOf("Apple");
+        BrandDictionary other = new BrandDictionary(brandRepository, Duration.ZERO);
+        other.load();
+        int nokia = brandDictionary.idOf("Nokia");
+        assertEquals("Apple", other.nameOf(apple));
+        assertThrows(IllegalStateException.class, () -> other.knownIdOf("Nokia"), "Brand should not be loaded yet");
+        assertEquals(nokia, other.idOf("Nokia"), "Stored brand should not be stored again");
+        assertEquals(2, brandRepository.findAll().size(), "Stored brand should not be stored again");
+        assertEquals("Nokia", other.nameOf(nokia));
+        assertEquals(nokia, other.knownIdOf("Nokia"));
+        assertThrows(IllegalStateException.class, () -> other.nameOf(nokia + 1000));
+    }
+
+    /**
+     * This test verifies that interning a brand not stored yet returns it as given, without storing it.
+     */
+    @Test
+    void shouldInternUnknownBrandWithoutStoringIt() {
+        assertEquals("Apple", brandDictionary.intern("Apple"));
+        assertEquals(0, brandRepository.findAll().size(), "Brand should not be stored");
+        assertThrows(IllegalStateException.class, () -> brandDictionary.knownIdOf("Apple"));
+    }
+
+    /**
+     * This test verifies that spellings stored by another dictionary after startup are found,
+     * also for a brand already known with another spelling.
+     */
+    @Test
+    void shouldFindSpellingsStoredElsewhere() {
+        brandDictionary.idOf("Apple");
+        BrandDictionary other = new BrandDictionary(brandRepository, Duration.ZERO);
+        other.load();
+        brandDictionary.idOf("APPLÉ");
+        brandDictionary.idOf("Nokia");
+        assertEquals(List.of("Apple", "APPLÉ"), other.spellingsOf("apple"));
+        assertEquals(List.of("Nokia"), other.spellingsOf("NOKIA"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Unit tests for {@link DeviceListVersions}.
+ * Verifies a list version changes only with the devices entering or leaving the list.
+ */
+class DeviceListVersionsTest {
+
+    private final DeviceListVersions versions = new DeviceListVersions();
+
+    /**
+     * This test verifies that an update bumps the lists of the device before and after the change,
+     * and leaves the others alone.
+     */
+    @Test
+    void shouldBumpListsOfChangedDevice() {
+        String all = versions.versionOf(null, null);
+        String apple = versions.versionOf("Apple", null);
+        String nokia = versions.versionOf("Nokia", null);
+        String available = versions.versionOf(null, State.AVAILABLE);
+        String inUse = versions.versionOf(null, State.IN_USE);
+        String inactive = versions.versionOf(null, State.INACTIVE);
+
+        versions.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "iPhone", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(1L, "iPhone", "Apple", State.IN_USE, 1L)));
+
+        assertNotEquals(all, versions.versionOf(null, null), "All devices should change");
+        assertNotEquals(apple, versions.versionOf("Apple", null), "Apple devices should change");
+        assertNotEquals(available, versions.versionOf(null, State.AVAILABLE), "Available devices should change");
+        assertNotEquals(inUse, versions.versionOf(null, State.IN_USE), "Devices in use should change");
+        assertEquals(nokia, versions.versionOf("Nokia", null), "Nokia devices should not change");
+        assertEquals(inactive, versions.versionOf(null, State.INACTIVE), "Inactive devices should not change");
+    }
+
+    /**
+     * This test verifies that lists filtered by brand follow the database in ignoring case and accents.
+     */
+    @Test
+    void shouldFoldCaseAndAccentsOfBrand() {
+        String brand = versions.versionOf("nokia", State.AVAILABLE);
+
+        versions.onDeviceChanged(DeviceChangedEvent.created(new DeviceDto(1L, "3310", "Nökia", State.AVAILABLE, 0L)));
+
+        assertNotEquals(brand, versions.versionOf("nokia", State.AVAILABLE), "Brand should match whatever its case and accents");
+        assertEquals(versions.versionOf("NOKIA", null), versions.versionOf("nokia", null), "Brand versions should be shared");
+    }
+
+    /**
+     * This test verifies that list keys tell apart the filters, ignore the case and accents of the brand,
+     * and change with the list.
+     */
+    @Test
+    void shouldChangeListKeyWithList() {
+        DeviceListKey key = versions.keyOf("Nokia", State.AVAILABLE);
+        assertEquals(key, versions.keyOf("NÖKIA", State.AVAILABLE), "Brand should match whatever its case and accents");
+        assertNotEquals(key, versions.keyOf("Nokia", State.IN_USE), "States should have their own lists");
+        assertNotEquals(key, versions.keyOf("Nokia", null), "Brands should have their own lists");
+
+        versions.onDeviceChanged(DeviceChangedEvent.created(new DeviceDto(1L, "3310", "Nokia", State.INACTIVE, 0L)));
+
+        assertNotEquals(key, versions.keyOf("Nokia", State.AVAILABLE), "Key should change with the brand");
+    }
+}
@@ -0,0 +1,135 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DeviceNameIndex}.
+ * Verifies the index is seeded from the database, follows device changes,
+ * and finds the devices whose name contains a text, a page at a time.
+ */
+class DeviceNameIndexTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeviceNameIndex deviceNameIndex;
+
+    private AutoCloseable autoCloseable;
+
+    /**
+     * Initialize the Mockito annotations and seed the index with devices of two brands.
+     */
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        when(deviceRepository.streamDeviceDtos()).thenReturn(Stream.of(
+                new DeviceDto(1L, "iPhone 15", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(2L, "iPhone 15 Pro", "Apple", State.IN_USE, 0L),
+                new DeviceDto(3L, "IPHONÉ SE", "apple", State.AVAILABLE, 0L),
+                new DeviceDto(4L, "Nokia Phone", "Nokia", State.AVAILABLE, 0L),
+                new DeviceDto(5L, "Galaxy S24", "Samsung", State.INACTIVE, 0L)
+        ));
+        deviceNameIndex = new DeviceNameIndex(deviceRepository, transactionManager);
+        deviceNameIndex.seed();
+    }
+
+    /**
+     * Clean up resources after each test by closing the AutoCloseable instance.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    /**
+     * This test verifies that devices are found by a part of their name, ignoring case and accents,
+     * and filtered by brand and state.
+     */
+    @Test
+    void shouldFindIdsByNameBrandAndState() {
+        assertArrayEquals(new long[]{1L, 2L, 3L, 4L}, deviceNameIndex.search("PHONE", null, null, 0L, 10));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, deviceNameIndex.search("iphone", null, null, 0L, 10));
+        assertArrayEquals(new long[]{1L, 2L}, deviceNameIndex.search("phone 15", null, null, 0L, 10));
+        assertArrayEquals(new long[]{1L, 3L}, deviceNameIndex.search("phone", "APPLE", State.AVAILABLE, 0L, 10));
+        assertArrayEquals(new long[]{2L}, deviceNameIndex.search("phone", null, State.IN_USE, 0L, 10));
+        assertEquals(0, deviceNameIndex.search("phone x", null, null, 0L, 10).length);
+        assertEquals(0, deviceNameIndex.search("Lumia", null, null, 0L, 10).length);
+        assertThrows(IllegalArgumentException.class, () -> deviceNameIndex.search("Ph", null, null, 0L, 10));
+    }
+
+    /**
+     * This test verifies that results are paged by ascending ID after the given one.
+     */
+    @Test
+    void shouldPageIdsAfterCursor() {
+        assertArrayEquals(new long[]{1L, 2L}, deviceNameIndex.search("phone", null, null, 0L, 2));
+        assertArrayEquals(new long[]{3L, 4L}, deviceNameIndex.search("phone", null, null, 2L, 2));
+        assertEquals(0, deviceNameIndex.search("phone", null, null, 4L, 2).length);
+    }
+
+    /**
+     * This test verifies that renames, brand and state changes are followed, and deletes remove devices.
+     */
+    @Test
+    void shouldFollowDeviceChanges() {
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "iPhone 15", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(1L, "Lumia 950", "Nokia", State.AVAILABLE, 1L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(4L, "Nokia Phone", "Nokia", State.AVAILABLE, 0L),
+                new DeviceDto(4L, "Nokia Phone", "Nokia", State.IN_USE, 1L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.deleted(
+                new DeviceDto(2L, "iPhone 15 Pro", "Apple", State.IN_USE, 0L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.created(
+                new DeviceDto(6L, "iPhone 16", "Apple", State.AVAILABLE, 0L)));
+
+        assertArrayEquals(new long[]{3L, 6L}, deviceNameIndex.search("iphone", null, null, 0L, 10));
+        assertArrayEquals(new long[]{1L}, deviceNameIndex.search("lumia", "Nokia", null, 0L, 10));
+        assertArrayEquals(new long[]{4L}, deviceNameIndex.search("phone", null, State.IN_USE, 0L, 10));
+        assertEquals(0, deviceNameIndex.search("pro", null, null, 0L, 10).length);
+        assertEquals(5, deviceNameIndex.size());
+    }
+
+    /**
+     * This test verifies that a rename applied out of commit order does not overwrite a newer one,
+     * and that a late image of a deleted device does not bring it back.
+     */
+    @Test
+    void shouldIgnoreChangesOlderThanTheIndexedOnes() {
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "Lumia 950", "Nokia", State.AVAILABLE, 1L),
+                new DeviceDto(1L, "Lumia 1020", "Nokia", State.AVAILABLE, 2L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "iPhone 15", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(1L, "Lumia 950", "Nokia", State.AVAILABLE, 1L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.deleted(
+                new DeviceDto(2L, "iPhone 15 Pro", "Apple", State.AVAILABLE, 1L)));
+        deviceNameIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(2L, "iPhone 15 Pro", "Apple", State.IN_USE, 0L),
+                new DeviceDto(2L, "iPhone 15 Pro", "Apple", State.AVAILABLE, 1L)));
+
+        assertArrayEquals(new long[]{1L}, deviceNameIndex.search("lumia 1020", null, null, 0L, 10));
+        assertEquals(0, deviceNameIndex.search("lumia 950", null, null, 0L, 10).length);
+        assertEquals(0, deviceNameIndex.search("pro", null, null, 0L, 10).length);
+        assertEquals(4, deviceNameIndex.size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.abimael.deviceresources.index;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.DeviceBrandState;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DeviceStateIndex}.
+ * Verifies the index is seeded from the database, follows device changes,
+ * and finds the devices of a brand and state.
+ */
+class DeviceStateIndexTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeviceStateIndex deviceStateIndex;
+
+    private AutoCloseable autoCloseable;
+
+    /**
+     * Initialize the Mockito annotations and seed the index with devices of two brands.
+     */
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        when(deviceRepository.streamBrandStates()).thenReturn(Stream.of(
+                new DeviceBrandState(1L, "Apple", State.AVAILABLE, 0L),
+                new DeviceBrandState(2L, "Apple", State.AVAILABLE, 0L),
+                new DeviceBrandState(3L, "apple", State.AVAILABLE, 0L),
+                new DeviceBrandState(4L, "Apple", State.IN_USE, 0L),
+                new DeviceBrandState(5L, "Nokia", State.AVAILABLE, 0L)
+        ));
+        deviceStateIndex = new DeviceStateIndex(deviceRepository, transactionManager);
+        deviceStateIndex.seed();
+    }
+
+    /**
+     * Clean up resources after each test by closing the AutoCloseable instance.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    /**
+     * This test verifies that devices are found by brand, ignoring its case, and state.
+     */
+    @Test
+    void shouldFindIdsByBrandAndState() {
+        assertArrayEquals(new long[]{1L, 2L, 3L}, sorted(deviceStateIndex.findIds("APPLE", State.AVAILABLE, 10)));
+        assertArrayEquals(new long[]{4L}, deviceStateIndex.findIds("Apple", State.IN_USE, 10));
+        assertArrayEquals(new long[]{1L, 2L, 3L, 5L}, sorted(deviceStateIndex.findIds(null, State.AVAILABLE, 10)));
+        assertEquals(0, deviceStateIndex.findIds("Samsung", State.AVAILABLE, 10).length);
+        assertEquals(2, deviceStateIndex.findIds("Apple", State.AVAILABLE, 2).length, "Limit should apply");
+        assertEquals(2, deviceStateIndex.findIds(null, State.AVAILABLE, 2).length, "Limit should apply across brands");
+    }
+
+    /**
+     * This test verifies that repeated searches returning fewer devices than match,
+     * within a brand or across brands, do not always return the same ones.
+     */
+    @Test
+    void shouldSpreadIdsFoundOverMatchingDevices() {
+        Set<Long> ofBrand = new HashSet<>();
+        Set<Long> acrossBrands = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            ofBrand.add(deviceStateIndex.findIds("Apple", State.AVAILABLE, 1)[0]);
+            acrossBrands.add(deviceStateIndex.findIds(null, State.AVAILABLE, 1)[0]);
+        }
+        assertEquals(Set.of(1L, 2L, 3L), ofBrand, "Every device of the brand should be found");
+        assertEquals(Set.of(1L, 2L, 3L, 5L), acrossBrands, "Every device of every brand should be found");
+    }
+
+    /**
+     * This test verifies that updates move devices between brands and states, and deletes remove them.
+     */
+    @Test
+    void shouldFollowDeviceChanges() {
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, null, "Apple", State.AVAILABLE, null),
+                new DeviceDto(1L, "iPhone", "Apple", State.IN_USE, 1L)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(5L, null, "Nokia", State.AVAILABLE, null),
+                new DeviceDto(5L, "3310", "Samsung", State.AVAILABLE, 1L)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.deleted(
+                new DeviceDto(2L, null, "Apple", State.AVAILABLE, null)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.created(
+                new DeviceDto(6L, "Lumia", "Nokia", State.AVAILABLE, 0L)));
+
+        assertArrayEquals(new long[]{3L}, deviceStateIndex.findIds("Apple", State.AVAILABLE, 10));
+        assertArrayEquals(new long[]{1L, 4L}, sorted(deviceStateIndex.findIds("Apple", State.IN_USE, 10)));
+        assertArrayEquals(new long[]{5L}, deviceStateIndex.findIds("Samsung", State.AVAILABLE, 10));
+        assertArrayEquals(new long[]{6L}, deviceStateIndex.findIds("Nokia", State.AVAILABLE, 10));
+        assertEquals(5, deviceStateIndex.size());
+    }
+
+    /**
+     * This test verifies that changes applied out of commit order do not overwrite newer ones,
+     * and that a late image of a deleted device does not bring it back.
+     */
+    @Test
+    void shouldIgnoreChangesOlderThanTheIndexedOnes() {
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "iPhone", "Apple", State.IN_USE, 1L),
+                new DeviceDto(1L, "iPhone", "Apple", State.AVAILABLE, 2L)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "iPhone", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(1L, "iPhone", "Apple", State.IN_USE, 1L)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.deleted(
+                new DeviceDto(2L, "iPhone", "Apple", State.IN_USE, 1L)));
+        deviceStateIndex.onDeviceChanged(DeviceChangedEvent.updated(
+                new DeviceDto(2L, "iPhone", "Apple", State.AVAILABLE, 0L),
+                new DeviceDto(2L, "iPhone", "Apple", State.IN_USE, 1L)));
+
+        assertArrayEquals(new long[]{1L, 3L}, sorted(deviceStateIndex.findIds("Apple", State.AVAILABLE, 10)));
+        assertArrayEquals(new long[]{4L}, deviceStateIndex.findIds("Apple", State.IN_USE, 10));
+        assertEquals(4, deviceStateIndex.size());
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+}
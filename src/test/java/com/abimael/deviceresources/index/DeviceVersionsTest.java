@@ -0,0 +1,44 @@
+package com.abimael.deviceresources.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link DeviceVersions}.
+ * Verifies only images newer than the last applied one are accepted, and none after a deletion.
+ */
+class DeviceVersionsTest {
+
+    /**
+     * This test verifies that an image is accepted only if newer than the last accepted one.
+     */
+    @Test
+    void shouldAdvanceOnlyToNewerVersions() {
+        DeviceVersions versions = new DeviceVersions();
+
+        assertTrue(versions.advance(1L, 0L));
+        assertTrue(versions.advance(1L, 2L));
+        assertFalse(versions.advance(1L, 1L), "Older image should be ignored");
+        assertFalse(versions.advance(1L, 2L), "Same image should be ignored");
+        assertTrue(versions.advance(1L, null), "Image of unknown version should be applied");
+        assertTrue(versions.advance(1L, 3L));
+    }
+
+    /**
+     * This test verifies that a deleted device accepts no image and no second deletion.
+     */
+    @Test
+    void shouldIgnoreImagesOfDeletedDevices() {
+        DeviceVersions versions = new DeviceVersions();
+
+        assertTrue(versions.advance(1L, 0L));
+        assertTrue(versions.delete(1L, 1L));
+        assertFalse(versions.advance(1L, 1L), "Late image should be ignored");
+        assertFalse(versions.advance(1L, null), "Image of unknown version should be ignored");
+        assertFalse(versions.delete(1L, 1L), "Second deletion should be ignored");
+        assertTrue(versions.delete(2L, null), "Deletion of an unseen device should be applied");
+        assertFalse(versions.advance(2L, 5L));
+    }
+}
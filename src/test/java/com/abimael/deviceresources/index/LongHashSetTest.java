@@ -0,0 +1,78 @@
+package com.abimael.deviceresources.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link LongHashSet}.
+ * Verifies it behaves as a {@link HashSet} through growth and deletions.
+ */
+class LongHashSetTest {
+
+    /**
+     * This test verifies that values are added, found and removed.
+     */
+    @Test
+    void shouldAddContainAndRemoveValues() {
+        LongHashSet set = new LongHashSet(4);
+        assertTrue(set.add(1L), "Value should be new");
+        assertFalse(set.add(1L), "Value should already be there");
+        assertTrue(set.contains(1L), "Value should be found");
+        assertTrue(set.remove(1L), "Value should be removed");
+        assertFalse(set.contains(1L), "Value should not be found");
+        assertEquals(0, set.size(), "Set should be empty");
+    }
+
+    /**
+     * This test verifies that random adds and removes give the same result as a {@link HashSet},
+     * and that all values, or as many as fit, are copied out from any slot.
+     */
+    @Test
+    void shouldMatchHashSetUnderRandomOperations() {
+        LongHashSet set = new LongHashSet(16);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long value = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value), "Removed value " + value);
+            } else {
+                assertEquals(expected.add(value), set.add(value), "Added value " + value);
+            }
+        }
+        assertEquals(expected.size(), set.size(), "Size should match");
+
+        long[] all = new long[set.size()];
+        assertEquals(all.length, set.copyTo(all, 0), "All values should be copied");
+        assertEquals(expected, Arrays.stream(all).boxed().collect(Collectors.toSet()));
+
+        long[] some = new long[12];
+        assertEquals(12, set.copyTo(some, 2), "Values should fill the array after the offset");
+        assertEquals(0L, some[0] + some[1], "Values should not be copied before the offset");
+
+        for (int start : new int[]{1, 7, -3, Integer.MAX_VALUE}) {
+            long[] wrapped = new long[set.size()];
+            assertEquals(wrapped.length, set.copyTo(wrapped, 0, start), "All values should be copied from any slot");
+            assertEquals(expected, Arrays.stream(wrapped).boxed().collect(Collectors.toSet()));
+        }
+    }
+
+    /**
+     * This test verifies that value 0, which marks free slots, is rejected.
+     */
+    @Test
+    void shouldRejectZeroValue() {
+        LongHashSet set = new LongHashSet(4);
+        assertThrows(IllegalArgumentException.class, () -> set.add(0L));
+    }
+}
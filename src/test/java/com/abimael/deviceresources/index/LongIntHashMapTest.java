@@ -0,0 +1,67 @@
+package com.abimael.deviceresources.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link LongIntHashMap}.
+ * Verifies it behaves as a {@link HashMap} through growth and deletions.
+ */
+class LongIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    /**
+     * This test verifies that values are stored, replaced and removed by key.
+     */
+    @Test
+    void shouldPutGetAndRemoveValues() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertEquals(MISSING, map.put(1L, 10, MISSING), "Key should be new");
+        assertEquals(10, map.put(1L, 11, MISSING), "Previous value should be returned");
+        assertEquals(11, map.get(1L, MISSING), "Value should be replaced");
+        assertEquals(11, map.remove(1L, MISSING), "Removed value should be returned");
+        assertEquals(MISSING, map.get(1L, MISSING), "Key should be removed");
+        assertEquals(0, map.size(), "Map should be empty");
+    }
+
+    /**
+     * This test verifies that random puts and removes give the same result as a {@link HashMap},
+     * including keys whose probe sequences overlap.
+     */
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? MISSING : previous, map.remove(key, MISSING), "Removed value");
+            } else {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? MISSING : previous, map.put(key, i, MISSING), "Previous value");
+            }
+        }
+        assertEquals(expected.size(), map.size(), "Size should match");
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.getOrDefault(key, MISSING), map.get(key, MISSING), "Value of key " + key);
+        }
+    }
+
+    /**
+     * This test verifies that key 0, which marks free slots, is rejected.
+     */
+    @Test
+    void shouldRejectZeroKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1, MISSING));
+    }
+}
@@ -0,0 +1,82 @@
+package com.abimael.deviceresources.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link SortedIntList}.
+ * Verifies it behaves as a {@link TreeSet} through growth and deletions.
+ */
+class SortedIntListTest {
+
+    /**
+     * This test verifies that values are kept in ascending order whatever the order they are added in.
+     */
+    @Test
+    void shouldKeepValuesSorted() {
+        SortedIntList list = new SortedIntList(4);
+        assertTrue(list.add(5), "Value should be new");
+        assertTrue(list.add(1), "Value should be new");
+        assertTrue(list.add(9), "Value should be new");
+        assertFalse(list.add(5), "Value should already be there");
+        assertEquals(3, list.size(), "Size should match");
+        assertEquals(1, list.get(0));
+        assertEquals(5, list.get(1));
+        assertEquals(9, list.get(2));
+        assertTrue(list.remove(5), "Value should be removed");
+        assertFalse(list.remove(5), "Value should not be found");
+        assertEquals(9, list.get(1));
+    }
+
+    /**
+     * This test verifies that the index after a value skips the values up to it,
+     * including values out of the int range.
+     */
+    @Test
+    void shouldFindIndexAfterValue() {
+        SortedIntList list = new SortedIntList(4);
+        list.add(10);
+        list.add(20);
+        list.add(30);
+        assertEquals(0, list.indexAfter(0L));
+        assertEquals(1, list.indexAfter(10L));
+        assertEquals(2, list.indexAfter(25L));
+        assertEquals(3, list.indexAfter(30L));
+        assertEquals(0, list.indexAfter(Long.MIN_VALUE));
+        assertEquals(3, list.indexAfter(Long.MAX_VALUE));
+    }
+
+    /**
+     * This test verifies that random adds and removes give the same result as a {@link TreeSet}.
+     */
+    @Test
+    void shouldMatchTreeSetUnderRandomOperations() {
+        SortedIntList list = new SortedIntList(4);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), list.remove(value), "Removed value " + value);
+            } else {
+                assertEquals(expected.add(value), list.add(value), "Added value " + value);
+            }
+        }
+        assertEquals(expected.size(), list.size(), "Size should match");
+        int index = 0;
+        for (int value : expected) {
+            assertEquals(value, list.get(index++), "Value at " + (index - 1) + " should match");
+        }
+        for (int value = -1; value <= 2_000; value += 7) {
+            Integer higher = expected.higher(value);
+            assertEquals(higher == null ? list.size() : expected.headSet(higher).size(), list.indexAfter(value),
+                    "Index after " + value);
+        }
+    }
+}
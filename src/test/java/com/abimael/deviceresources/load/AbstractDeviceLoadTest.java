@@ -0,0 +1,184 @@
+package com.abimael.deviceresources.load;
+
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test of the {@code DeviceController} endpoints, run against a real server and database.
+ * Keeps a fixed number of requests in flight, mixing fetches by ID, page fetches and creations,
+ * and logs throughput and latency percentiles, so the subclasses can compare thread models
+ * on the same workload. Tagged {@code load}, so it only runs with the {@code load} Maven profile.
+ */
+@Tag("load")
+abstract class AbstractDeviceLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractDeviceLoadTest.class);
+
+    private static final String BRAND = "Load Brand";
+
+    private static final int DEVICES = 1_000;
+
+    private static final int CONCURRENCY = 500;
+
+    private static final int WARMUP_REQUESTS = 5_000;
+
+    private static final int REQUESTS = 50_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private IDeviceService deviceService;
+
+    private ExecutorService executor;
+
+    private HttpClient client;
+
+    private List<Long> ids;
+
+    /**
+     * Create the devices fetched by the load, and the client sending it.
+     */
+    @BeforeEach
+    void setUp() {
+        List<DeviceDto> devices = IntStream.range(0, DEVICES)
+                .mapToObj(i -> new DeviceDto(null, "Load Device " + i, BRAND, State.values()[i % 3], null))
+                .toList();
+        ids = deviceService.createDevices(devices.iterator()).stream()
+                .map(DeviceBatchResultDto::getId)
+                .toList();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Stop the client threads.
+     */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends the load after a warmup, logs its results, and verifies that no request failed.
+     */
+    @Test
+    void shouldServeDeviceEndpointsUnderLoad() throws Exception {
+        run(WARMUP_REQUESTS);
+        LoadResult result = run(REQUESTS);
+        logger.info("{}: {} requests in {} ms, {} req/s, p50 {} ms, p99 {} ms, max {} ms, {} rejected, {} failed",
+                getClass().getSimpleName(), REQUESTS, result.elapsedNanos() / 1_000_000,
+                (long) (REQUESTS * 1e9 / result.elapsedNanos()),
+                millis(result.percentile(0.50)), millis(result.percentile(0.99)), millis(result.percentile(1.0)),
+                result.rejected(), result.failed());
+        assertEquals(0, result.failed(), "No request should fail");
+    }
+
+    // Sends the given number of requests with CONCURRENCY of them in flight, and records their latencies.
+    private LoadResult run(int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            workers.add(Thread.ofVirtual().start(() -> {
+                int request;
+                while ((request = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    int status = send(request);
+                    latencies[request] = System.nanoTime() - sent;
+                    if (status == 503) {
+                        rejected.incrementAndGet();
+                    } else if (status >= 400) {
+                        failed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new LoadResult(elapsed, latencies, rejected.get(), failed.get());
+    }
+
+    // Sends one request of the mix: 10% creations, 30% page fetches and 60% fetches by ID.
+    private int send(int request) {
+        HttpRequest.Builder builder;
+        int kind = request % 10;
+        if (kind == 0) {
+            builder = HttpRequest.newBuilder(uri("/api/devices"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"name\":\"Load Device\",\"brand\":\"" + BRAND + "\",\"state\":\"AVAILABLE\"}"));
+        } else if (kind <= 3) {
+            builder = HttpRequest.newBuilder(uri("/api/devices?limit=50&brand="
+                    + URLEncoder.encode(BRAND, StandardCharsets.UTF_8)));
+        } else {
+            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            builder = HttpRequest.newBuilder(uri("/api/devices/" + id));
+        }
+        try {
+            return client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception ex) {
+            return 599;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Results of a load run.
+     *
+     * @param elapsedNanos the time taken by the whole run
+     * @param sortedLatencies the latency of each request, sorted
+     * @param rejected the number of requests rejected with 503
+     * @param failed the number of requests failing with another error
+     */
+    private record LoadResult(long elapsedNanos, long[] sortedLatencies, int rejected, int failed) {
+
+        long percentile(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)];
+        }
+    }
+}
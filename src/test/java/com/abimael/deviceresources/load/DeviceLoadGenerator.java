@@ -0,0 +1,325 @@
+package com.abimael.deviceresources.load;
+
+import com.abimael.deviceresources.DeviceResourcesApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator for the {@code DeviceController} endpoints.
+ * Starts requests at a fixed rate whatever the response times, and measures each latency from the
+ * time the request was scheduled to start rather than from the time it was sent, so a stalled
+ * server is charged for the requests it delayed (no coordinated omission).
+ * Latencies are recorded per operation in HdrHistograms, and each run writes a report directory
+ * with a {@code summary.csv} and the percentile distribution of each operation, comparable across runs.
+ * Unless a {@code base-url} is given, the application is started with the {@code embedded} profile
+ * on an in-memory H2 database in MySQL mode.
+ * Run with {@code mvn -Pload test-compile exec:exec -Dload.args="rate=2000 duration=2m"}.
+ */
+public final class DeviceLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLoadGenerator.class);
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final int BRANDS = 10;
+
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    // Status of the requests that could not be sent, and of the deletes skipped for lack of created devices.
+    private static final int TRANSPORT_ERROR = 599;
+
+    private static final int SKIPPED = 0;
+
+    private final LoadOptions options;
+
+    private final String baseUrl;
+
+    private final HttpClient client;
+
+    private final ExecutorService executor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<LoadOperation, Recorder> recorders = new EnumMap<>(LoadOperation.class);
+
+    private final Map<LoadOperation, LongAdder[]> outcomes = new EnumMap<>(LoadOperation.class);
+
+    // Devices created before the run, fetched and updated by the load.
+    private long[] seededIds;
+
+    // Devices created by the load, deleted by the load.
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    private final LoadOperation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    DeviceLoadGenerator(LoadOptions options, String baseUrl, ExecutorService executor) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.executor = executor;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+        List<LoadOperation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<LoadOperation, Integer> entry : options.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        this.operations = weighted.toArray(LoadOperation[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        for (LoadOperation operation : LoadOperation.values()) {
+            recorders.put(operation, new Recorder(MAX_LATENCY_NANOS, SIGNIFICANT_DIGITS));
+            // Successes, client errors, server errors and skipped requests.
+            outcomes.put(operation, new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()});
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(DeviceResourcesApplication.class)
+                    .profiles("embedded")
+                    .properties("server.port=0")
+                    .run();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Path report = new DeviceLoadGenerator(options, baseUrl, executor).run();
+            logger.info("Report written to {}", report.toAbsolutePath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Creates the devices of the run, drives the warmup then the recorded load, and writes the report.
+     *
+     * @return the directory of the report
+     * @throws IOException if the devices cannot be created or the report cannot be written
+     * @throws InterruptedException if the run is interrupted
+     */
+    Path run() throws IOException, InterruptedException {
+        seed();
+        logger.info("Warming up for {} at {} requests/s", options.warmup(), options.rate());
+        drive(options.warmup(), false);
+        logger.info("Recording for {} at {} requests/s", options.duration(), options.rate());
+        long elapsed = drive(options.duration(), true);
+        return writeReport(elapsed);
+    }
+
+    // Starts requests at the target rate for the given duration, waits for them, and returns the elapsed time.
+    private long drive(Duration duration, boolean record) {
+        Random random = new Random(options.rate());
+        Phaser inFlight = new Phaser(1);
+        long start = System.nanoTime();
+        long requests = duration.toSeconds() * options.rate();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * 1_000_000_000L / options.rate();
+            long delay;
+            while ((delay = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            LoadOperation operation = pick(random);
+            inFlight.register();
+            executor.execute(() -> {
+                try {
+                    execute(operation, intendedStart, record);
+                } finally {
+                    inFlight.arriveAndDeregister();
+                }
+            });
+        }
+        inFlight.arriveAndAwaitAdvance();
+        return System.nanoTime() - start;
+    }
+
+    private LoadOperation pick(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (value >= cumulativeWeights[index]) {
+            index++;
+        }
+        return operations[index];
+    }
+
+    // Sends one request and records its latency since the time it was scheduled to start.
+    private void execute(LoadOperation operation, long intendedStart, boolean record) {
+        int status = send(operation);
+        long latency = System.nanoTime() - intendedStart;
+        if (!record) {
+            return;
+        }
+        LongAdder[] counters = outcomes.get(operation);
+        if (status == SKIPPED) {
+            counters[3].increment();
+            return;
+        }
+        recorders.get(operation).recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+        counters[status < 400 ? 0 : status < 500 ? 1 : 2].increment();
+    }
+
+    private int send(LoadOperation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int device = random.nextInt(seededIds.length);
+        HttpRequest request = switch (operation) {
+            case CREATE -> json(HttpRequest.newBuilder(uri("/api/devices")),
+                    deviceJson("Load Device", random.nextInt(BRANDS), "AVAILABLE"), "POST");
+            case FETCH -> HttpRequest.newBuilder(uri("/api/devices/" + seededIds[device])).build();
+            case LIST -> HttpRequest.newBuilder(uri("/api/devices?limit=50&brand="
+                    + URLEncoder.encode(brand(random.nextInt(BRANDS)), StandardCharsets.UTF_8))).build();
+            case UPDATE -> json(HttpRequest.newBuilder(uri("/api/devices/" + seededIds[device])),
+                    deviceJson(name(device), device % BRANDS, random.nextBoolean() ? "AVAILABLE" : "INACTIVE"), "PUT");
+            case DELETE -> {
+                Long id = createdIds.poll();
+                yield id == null ? null : HttpRequest.newBuilder(uri("/api/devices/" + id)).DELETE().build();
+            }
+        };
+        if (request == null) {
+            return SKIPPED;
+        }
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (operation == LoadOperation.CREATE && response.statusCode() == 201) {
+                response.headers().firstValue("Location").ifPresent(location ->
+                        createdIds.add(Long.valueOf(location.substring(location.lastIndexOf('/') + 1))));
+            }
+            return response.statusCode();
+        } catch (IOException ex) {
+            return TRANSPORT_ERROR;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return TRANSPORT_ERROR;
+        }
+    }
+
+    // Creates the devices fetched and updated by the load, through the batch endpoint.
+    private void seed() throws IOException, InterruptedException {
+        logger.info("Creating {} devices", options.devices());
+        seededIds = new long[options.devices()];
+        for (int from = 0; from < seededIds.length; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            int to = Math.min(seededIds.length, from + SEED_BATCH_SIZE);
+            for (int i = from; i < to; i++) {
+                body.append(i > from ? "," : "").append(deviceJson(name(i), i % BRANDS, "AVAILABLE"));
+            }
+            HttpRequest request = json(HttpRequest.newBuilder(uri("/api/devices/batch")), body.append(']').toString(), "POST");
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Failed to create devices: " + response.statusCode() + " " + response.body());
+            }
+            JsonNode results = objectMapper.readTree(response.body());
+            for (int i = from; i < to; i++) {
+                seededIds[i] = results.get(i - from).get("id").asLong();
+            }
+        }
+    }
+
+    // Writes the summary of each operation, the percentile distributions and the options of the run.
+    private Path writeReport(long elapsedNanos) throws IOException {
+        Path directory = options.reportDirectory()
+                .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(directory);
+        double seconds = elapsedNanos / 1e9;
+        List<String> summary = new ArrayList<>();
+        summary.add("operation,count,throughput_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,"
+                + "client_errors,server_errors,skipped");
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            LongAdder[] counters = outcomes.get(operation);
+            summary.add(String.format("%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d",
+                    operation.name().toLowerCase(), histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50.0), millis(histogram, 90.0), millis(histogram, 99.0),
+                    millis(histogram, 99.9), histogram.getMaxValue() / NANOS_PER_MILLI,
+                    counters[1].sum(), counters[2].sum(), counters[3].sum()));
+            if (histogram.getTotalCount() > 0) {
+                try (PrintStream out = new PrintStream(
+                        Files.newOutputStream(directory.resolve(operation.name().toLowerCase() + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+                }
+            }
+        }
+        Files.write(directory.resolve("summary.csv"), summary);
+        Files.writeString(directory.resolve("options.txt"), String.format(
+                "base-url=%s%nrate=%d%nwarmup=%s%nduration=%s%ndevices=%d%nmix=%s%nelapsed=%.3fs%n",
+                baseUrl, options.rate(), options.warmup(), options.duration(), options.devices(),
+                options.mix(), seconds));
+        summary.forEach(logger::info);
+        return directory;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String body, String method) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String deviceJson(String name, int brand, String state) {
+        return "{\"name\":\"" + name + "\",\"brand\":\"" + brand(brand) + "\",\"state\":\"" + state + "\"}";
+    }
+
+    private static String name(int device) {
+        return "Load Device " + device;
+    }
+
+    private static String brand(int brand) {
+        return "Load Brand " + brand;
+    }
+}
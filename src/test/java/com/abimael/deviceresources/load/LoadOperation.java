@@ -0,0 +1,22 @@
+package com.abimael.deviceresources.load;
+
+/**
+ * Operations of the {@code DeviceController} driven by the {@link DeviceLoadGenerator}.
+ */
+public enum LoadOperation {
+
+    /** POST /api/devices */
+    CREATE,
+
+    /** GET /api/devices/{id} */
+    FETCH,
+
+    /** GET /api/devices with a brand filter and a page limit */
+    LIST,
+
+    /** PUT /api/devices/{id} toggling the state between AVAILABLE and INACTIVE */
+    UPDATE,
+
+    /** DELETE /api/devices/{id} of a device created by the load */
+    DELETE
+}
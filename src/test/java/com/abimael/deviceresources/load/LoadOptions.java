@@ -0,0 +1,69 @@
+package com.abimael.deviceresources.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of a {@link DeviceLoadGenerator} run, parsed from {@code key=value} arguments.
+ *
+ * @param baseUrl the URL of the API to load, or null to start the application on the embedded database
+ * @param rate the number of requests started per second
+ * @param warmup how long the load runs before being recorded
+ * @param duration how long the load is recorded
+ * @param devices the number of devices created before the run, fetched and updated by the load
+ * @param mix the relative weight of each operation in the load
+ * @param reportDirectory the directory in which each run writes its report
+ */
+public record LoadOptions(String baseUrl, int rate, Duration warmup, Duration duration, int devices,
+                          Map<LoadOperation, Integer> mix, Path reportDirectory) {
+
+    private static final String DEFAULT_MIX = "create:10,fetch:50,list:20,update:15,delete:5";
+
+    /**
+     * Parses the options from the given arguments, using defaults for the missing ones.
+     *
+     * @param args the arguments, e.g. {@code rate=2000 duration=2m mix=fetch:90,update:10}
+     * @return the options
+     * @throws IllegalArgumentException if an argument is not valid
+     */
+    public static LoadOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            checkArgument(separator > 0, "Argument must be key=value: %s", arg);
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadOptions options = new LoadOptions(
+                values.get("base-url"),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("devices", "1000")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Path.of(values.getOrDefault("report-dir", "target/load-reports")));
+        checkArgument(options.rate() > 0, "Rate must be positive");
+        checkArgument(options.devices() > 0, "Devices must be positive");
+        return options;
+    }
+
+    // Parses weights given as operation:weight pairs separated by commas.
+    private static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            checkArgument(parts.length == 2, "Mix entry must be operation:weight: %s", entry);
+            int weight = Integer.parseInt(parts[1].trim());
+            checkArgument(weight >= 0, "Weight must not be negative: %s", entry);
+            weights.put(LoadOperation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        checkArgument(weights.values().stream().mapToInt(Integer::intValue).sum() > 0, "Mix must have a positive weight");
+        return weights;
+    }
+}
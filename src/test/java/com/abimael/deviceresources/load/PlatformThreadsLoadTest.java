@@ -0,0 +1,12 @@
+package com.abimael.deviceresources.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Load test of the device endpoints with requests handled by the Tomcat pool of platform threads.
+ * Uses the connection pool size of the {@code virtual} profile, so both runs are comparable.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.hikari.maximum-pool-size=20")
+class PlatformThreadsLoadTest extends AbstractDeviceLoadTest {
+}
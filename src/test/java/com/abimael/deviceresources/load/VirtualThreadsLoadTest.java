@@ -0,0 +1,13 @@
+package com.abimael.deviceresources.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Load test of the device endpoints with requests handled by virtual threads,
+ * as configured by the {@code virtual} profile.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("virtual")
+class VirtualThreadsLoadTest extends AbstractDeviceLoadTest {
+}
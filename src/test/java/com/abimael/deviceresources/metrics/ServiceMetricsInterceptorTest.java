@@ -0,0 +1,101 @@
+package com.abimael.deviceresources.metrics;
+
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.DeviceNotInUseException;
+import com.abimael.deviceresources.exception.ResourceNotFoundException;
+import com.abimael.deviceresources.service.IDeviceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ServiceMetricsInterceptor}.
+ * Verifies the calls are timed per method and outcome, with overloaded methods told apart.
+ */
+class ServiceMetricsInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ServiceMetricsInterceptor interceptor;
+
+    /**
+     * Bind the interceptor of the device service to an in-memory registry.
+     */
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new ServiceMetricsInterceptor(IDeviceService.class);
+        interceptor.bindTo(registry);
+    }
+
+    /**
+     * This test verifies that a successful call is timed under its method and the success outcome.
+     */
+    @Test
+    void shouldTimeSuccessfulCall() throws Throwable {
+        interceptor.invoke(invocation(IDeviceService.class.getMethod("fetchDeviceStats")));
+        assertEquals(1, count("fetchDeviceStats", "success"), "Call should be timed");
+    }
+
+    /**
+     * This test verifies that a failed call is timed under the outcome of its exception,
+     * and that the exception is rethrown.
+     */
+    @Test
+    void shouldTimeFailedCallByOutcome() throws Throwable {
+        MethodInvocation invocation = invocation(IDeviceService.class.getMethod("fetchDeviceById", Long.class));
+        when(invocation.proceed()).thenThrow(new ResourceNotFoundException("Device", "id", 1L));
+        assertThrows(ResourceNotFoundException.class, () -> interceptor.invoke(invocation));
+        assertEquals(1, count("fetchDeviceById", "not_found"), "Failure should be timed");
+        assertEquals(0, count("fetchDeviceById", "success"), "Failure should not be timed as success");
+    }
+
+    /**
+     * This test verifies that a checkout finding no available device and a release of a device not in use
+     * are timed under their own outcomes, not as unexpected errors.
+     */
+    @Test
+    void shouldTimeCheckoutAndReleaseFailuresByOutcome() throws Throwable {
+        MethodInvocation checkout = invocation(IDeviceService.class.getMethod("checkoutDevice", String.class));
+        when(checkout.proceed()).thenThrow(new DeviceNotAvailableException("Device", "brand", "Apple"));
+        MethodInvocation release = invocation(IDeviceService.class.getMethod("releaseDevice", Long.class));
+        when(release.proceed()).thenThrow(new DeviceNotInUseException("Device", "id", 1L));
+        assertThrows(DeviceNotAvailableException.class, () -> interceptor.invoke(checkout));
+        assertThrows(DeviceNotInUseException.class, () -> interceptor.invoke(release));
+        assertEquals(1, count("checkoutDevice", "not_available"), "Checkout failure should be timed");
+        assertEquals(1, count("releaseDevice", "not_in_use"), "Release failure should be timed");
+        assertEquals(0, count("checkoutDevice", "error"), "Checkout failure should not be timed as error");
+        assertEquals(0, count("releaseDevice", "error"), "Release failure should not be timed as error");
+    }
+
+    /**
+     * This test verifies that overloaded methods are timed apart, by number of parameters.
+     */
+    @Test
+    void shouldTimeOverloadedMethodsApart() throws Throwable {
+        interceptor.invoke(invocation(IDeviceService.class.getMethod("fetchDevices", String.class, String.class)));
+        interceptor.invoke(invocation(IDeviceService.class.getMethod("fetchDevices",
+                String.class, String.class, int.class, String.class)));
+        assertEquals(1, count("fetchDevices#2", "success"), "List should be timed");
+        assertEquals(1, count("fetchDevices#4", "success"), "Page should be timed");
+    }
+
+    private long count(String method, String outcome) {
+        return registry.get(ServiceMetricsInterceptor.TIMER_NAME).tag("method", method).tag("outcome", outcome)
+                .timer().count();
+    }
+
+    private static MethodInvocation invocation(Method method) {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(method);
+        return invocation;
+    }
+}
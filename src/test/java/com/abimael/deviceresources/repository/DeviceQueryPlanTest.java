@@ -0,0 +1,169 @@
+package com.abimael.deviceresources.repository;
+
+import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.index.BrandDictionary;
+import com.abimael.deviceresources.util.State;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Query plan regression tests for the {@link DeviceSpecifications} used to filter devices.
+ * Captures the SQL Hibernate generates for each brand/state combination, runs {@code EXPLAIN}
+ * on it against the database, and fails if any table is read with a full scan.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.abimael.deviceresources.repository.DeviceQueryPlanTest$RecordingStatementInspector")
+class DeviceQueryPlanTest {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Lenovo", "Nokia", "Motorola"};
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BrandDictionary brandDictionary;
+
+    private List<Device> devices;
+
+    /**
+     * Insert devices spread over several brands and states, so the optimizer
+     * statistics reflect a table where the filters are selective: only 1% of them are AVAILABLE,
+     * so the state filter is served by its index however the other rows of the table are spread.
+     */
+    @BeforeEach
+    void setUp() {
+        for (String brand : BRANDS) {
+            brandDictionary.idOf(brand);
+        }
+        List<Device> planDevices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Device device = new Device();
+            device.setName("Plan Device " + i);
+            device.setBrand(BRANDS[i % BRANDS.length]);
+            device.setState(i % 100 == 0 ? State.AVAILABLE : i % 2 == 0 ? State.IN_USE : State.INACTIVE);
+            planDevices.add(device);
+        }
+        devices = deviceRepository.saveAll(planDevices);
+        jdbcTemplate.execute("ANALYZE TABLE device");
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    /**
+     * Delete the devices inserted for the test. They cannot be rolled back instead,
+     * as {@code ANALYZE TABLE} commits the transaction it runs in.
+     */
+    @AfterEach
+    void tearDown() {
+        deviceRepository.deleteAllInBatch(devices);
+    }
+
+    // Returns the brand/state combinations that must be served by an index.
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of("Apple", null),
+                Arguments.of(null, State.AVAILABLE.name()),
+                Arguments.of("Apple", State.AVAILABLE.name())
+        );
+    }
+
+    /**
+     * Verifies that filtering the full list of devices does not scan the whole table.
+     */
+    @ParameterizedTest
+    @MethodSource("filters")
+    void shouldNotFullScanWhenFetchDevices(String brand, String state) {
+        deviceRepository.findDeviceDtos(DeviceSpecifications.byBrandAndState(brands(brand), state), 0);
+        assertNoFullScan(lastSelect(), parameters(brand, state));
+    }
+
+    /**
+     * Verifies that fetching a page of devices after a cursor does not scan the whole table,
+     * including when no filter is given.
+     */
+    @ParameterizedTest
+    @MethodSource("filtersWithoutFilter")
+    void shouldNotFullScanWhenFetchDevicePage(String brand, String state) {
+        deviceRepository.findDeviceDtos(DeviceSpecifications.byBrandAndState(brands(brand), state)
+                .and(DeviceSpecifications.idGreaterThan(1L)), 11);
+        List<Object> parameters = parameters(brand, state);
+        parameters.add(1L);
+        parameters.add(11);
+        assertNoFullScan(lastSelect(), parameters);
+    }
+
+    // Returns the brand/state combinations, plus the combination without any filter.
+    static Stream<Arguments> filtersWithoutFilter() {
+        return Stream.concat(filters(), Stream.of(Arguments.of(null, null)));
+    }
+
+    // Runs EXPLAIN on the given statement and asserts that no table is read with a full scan.
+    private void assertNoFullScan(String sql, List<Object> parameters) {
+        assertEquals(parameters.size(), sql.chars().filter(c -> c == '?').count(),
+                "Parameters do not match the statement: " + sql);
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters.toArray());
+        assertFalse(plan.isEmpty(), "Plan should have one or more rows");
+        for (Map<String, Object> row : plan) {
+            assertNotEquals("ALL", row.get("type"), "Full scan of " + row.get("table") + " for: " + sql);
+        }
+    }
+
+    // Returns the last select statement sent to the database.
+    private static String lastSelect() {
+        List<String> selects = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertFalse(selects.isEmpty(), "A select statement should have been executed");
+        return selects.get(selects.size() - 1);
+    }
+
+    // Returns the stored spellings of the brand, or null to include all brands.
+    private List<String> brands(String brand) {
+        return brand == null ? null : brandDictionary.spellingsOf(brand);
+    }
+
+    // Returns the bound parameters of the brand/state filters, in the order the specification adds them.
+    private List<Object> parameters(String brand, String state) {
+        List<Object> parameters = new ArrayList<>();
+        if (brand != null) {
+            brands(brand).forEach(spelling -> parameters.add(brandDictionary.idOf(spelling)));
+        }
+        if (state != null) {
+            parameters.add(state);
+        }
+        return parameters;
+    }
+
+    /**
+     * Records every statement Hibernate sends to the database.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.abimael.deviceresources.service.impl;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.exception.DeviceInUseException;
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.ResourceNotFoundException;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.service.IDeviceService;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrency tests for {@link DeviceServiceImpl} against the database.
+ * Races deletes against updates putting the same devices in use, to verify
+ * the delete guard holds under contention, and checkouts against each other.
+ */
+@SpringBootTest
+class DeviceServiceImplConcurrencyTest {
+
+    private static final int DEVICES = 100;
+
+    private static final int WORKERS = 64;
+
+    @Autowired
+    private IDeviceService deviceService;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    /**
+     * This test verifies that no device is deleted after being put in use: for each device,
+     * an update to IN_USE and a delete race each other, and at most one of them succeeds,
+     * the delete succeeding only if it ran before the update.
+     */
+    @Test
+    void shouldNeverDeleteDeviceInUseUnderContention() throws Exception {
+        List<DeviceDto> devices = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            devices.add(deviceService.createDevice(
+                    new DeviceDto(null, "Race Device " + i, "Race Brand", State.AVAILABLE, null)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> updates = new ArrayList<>();
+            List<Future<Boolean>> deletes = new ArrayList<>();
+            for (DeviceDto device : devices) {
+                updates.add(executor.submit(awaiting(start, () -> putInUse(device))));
+                deletes.add(executor.submit(awaiting(start, () -> delete(device.getId()))));
+            }
+            start.countDown();
+            for (int i = 0; i < DEVICES; i++) {
+                Long id = devices.get(i).getId();
+                boolean updated = updates.get(i).get();
+                boolean deleted = deletes.get(i).get();
+                assertFalse(updated && deleted, "Device " + id + " was deleted while in use");
+                assertTrue(updated || deleted, "Device " + id + " was neither updated nor deleted");
+                assertTrue(deleted != deviceRepository.existsById(id), "Device " + id + " existence does not match");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This test verifies that concurrent checkouts never claim the same device: more workers than
+     * available devices check out at once, and each device is claimed by exactly one of them.
+     */
+    @Test
+    void shouldNeverCheckoutDeviceTwiceUnderContention() throws Exception {
+        String brand = "Checkout Brand " + System.nanoTime();
+        for (int i = 0; i < DEVICES; i++) {
+            deviceService.createDevice(new DeviceDto(null, "Checkout Device " + i, brand, State.AVAILABLE, null));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> checkouts = new ArrayList<>();
+            for (int i = 0; i < DEVICES + WORKERS; i++) {
+                checkouts.add(executor.submit(awaiting(start, () -> checkout(brand))));
+            }
+            start.countDown();
+            Set<Long> claimed = new HashSet<>();
+            int rejected = 0;
+            for (Future<Long> checkout : checkouts) {
+                Long id = checkout.get();
+                if (id == null) {
+                    rejected++;
+                } else {
+                    assertTrue(claimed.add(id), "Device " + id + " was checked out twice");
+                }
+            }
+            assertEquals(DEVICES, claimed.size(), "Every device should be checked out");
+            assertEquals(WORKERS, rejected, "Checkouts beyond the available devices should be rejected");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Checks out a device of the brand, returning its ID, or null if none was available.
+    private Long checkout(String brand) {
+        try {
+            return deviceService.checkoutDevice(brand).getId();
+        } catch (DeviceNotAvailableException ex) {
+            return null;
+        }
+    }
+
+    // Puts the device in use with a conditional update, returning whether it existed to be updated.
+    private boolean putInUse(DeviceDto device) {
+        try {
+            deviceService.updateDevice(new DeviceDto(null, device.getName(), device.getBrand(), State.IN_USE, null),
+                    device.getId(), device.getVersion());
+            return true;
+        } catch (ResourceNotFoundException ex) {
+            return false;
+        }
+    }
+
+    // Deletes the device, returning whether it was not in use to be deleted.
+    private boolean delete(Long id) {
+        try {
+            deviceService.deleteById(id);
+            return true;
+        } catch (DeviceInUseException | ResourceNotFoundException ex) {
+            return false;
+        }
+    }
+
+    // Wraps the task so it starts only when the latch is released, for all tasks to race.
+    private static <T> Callable<T> awaiting(CountDownLatch start, Callable<T> task) {
+        return () -> {
+            start.await();
+            return task.call();
+        };
+    }
+}
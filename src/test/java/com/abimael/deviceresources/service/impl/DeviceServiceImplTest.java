@@ -1,28 +1,65 @@
 package com.abimael.deviceresources.service.impl;
 
+import com.abimael.deviceresources.config.CacheConfig;
+import com.abimael.deviceresources.constants.DevicesConstants;
+import com.abimael.deviceresources.dto.DeviceBatchResultDto;
 import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DevicePageDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeDto;
+import com.abimael.deviceresources.dto.DeviceStateChangeResultDto;
 import com.abimael.deviceresources.entity.Device;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
 import com.abimael.deviceresources.exception.ResourceNotFoundException;
 import com.abimael.deviceresources.exception.DeviceInUseException;
+import com.abimael.deviceresources.exception.DeviceNotAvailableException;
+import com.abimael.deviceresources.exception.DeviceNotInUseException;
+import com.abimael.deviceresources.exception.PreconditionFailedException;
+import com.abimael.deviceresources.index.BrandDictionary;
+import com.abimael.deviceresources.index.DeviceListKey;
+import com.abimael.deviceresources.index.DeviceListVersions;
+import com.abimael.deviceresources.index.DeviceNameIndex;
+import com.abimael.deviceresources.index.DeviceStateIndex;
+import com.abimael.deviceresources.mapper.DeviceMapper;
 import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.stats.DeviceStatsCounters;
+import com.abimael.deviceresources.util.DeviceCursor;
 import com.abimael.deviceresources.util.State;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.never;
@@ -37,6 +74,48 @@ class DeviceServiceImplTest {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DeviceStatsCounters deviceStatsCounters;
+
+    @Mock
+    private DeviceStateIndex deviceStateIndex;
+
+    @Mock
+    private DeviceNameIndex deviceNameIndex;
+
+    @Mock
+    private DeviceListVersions deviceListVersions;
+
+    @Mock
+    private BrandDictionary brandDictionary;
+
+    @Mock
+    private AuditorAware<String> auditorAware;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private Cache listCache;
+
     @InjectMocks
     private DeviceServiceImpl deviceService;
 
@@ -48,6 +127,14 @@ class DeviceServiceImplTest {
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+        when(cacheManager.getCache(CacheConfig.DEVICES_CACHE)).thenReturn(cache);
+        when(cacheManager.getCache(CacheConfig.DEVICE_LISTS_CACHE)).thenReturn(listCache);
+        when(listCache.get(any(), any(Callable.class))).thenAnswer(
+                invocation -> invocation.<Callable<?>>getArgument(1).call());
+        when(brandDictionary.intern(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     /**
@@ -82,6 +169,30 @@ class DeviceServiceImplTest {
         assertEquals(dto.getBrand(), createdDevice.getBrand(), "Device brand does not match");
         assertEquals(dto.getState(), createdDevice.getState(), "Device state does not match");
         verify(deviceRepository, times(1)).save(any(Device.class));
+        verify(eventPublisher, times(1)).publishEvent(DeviceChangedEvent.created(createdDevice));
+    }
+
+    /**
+     * This test verifies that a batch of devices is created, reporting the
+     * invalid devices without inserting them.
+     */
+    @Test
+    void shouldCreateDevicesInBatch() {
+        DeviceDto valid = new DeviceDto();
+        valid.setName("Device name");
+        valid.setBrand("Device brand");
+        valid.setState(State.AVAILABLE);
+
+        DeviceDto invalid = new DeviceDto();
+        invalid.setBrand("Device brand");
+        invalid.setState(State.AVAILABLE);
+
+        List<DeviceBatchResultDto> results = deviceService.createDevices(List.of(valid, invalid, valid).iterator());
+        assertEquals(3, results.size(), "Results size does not match");
+        assertEquals(DevicesConstants.STATUS_201, results.get(0).getCode(), "Device 0 should be created");
+        assertEquals(DevicesConstants.STATUS_400, results.get(1).getCode(), "Device 1 should be rejected");
+        assertEquals(DevicesConstants.STATUS_201, results.get(2).getCode(), "Device 2 should be created");
+        verify(deviceRepository, times(1)).saveAll(any());
     }
 
     /**
@@ -98,13 +209,14 @@ class DeviceServiceImplTest {
         device.setCreatedBy("TEST_USER");
         device.setCreatedAt(LocalDateTime.now());
 
-        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(Optional.of(DeviceMapper.mapToDeviceDto(device)));
         DeviceDto result = deviceService.fetchDeviceById(1L);
         assertNotNull(result);
         assertEquals(device.getName(), result.getName(), "Device name does not match");
         assertEquals(device.getBrand(), result.getBrand(), "Device brand does not match");
         assertEquals(device.getState(), result.getState(), "Device state does not match");
-        verify(deviceRepository, times(1)).findById(1L);
+        verify(deviceRepository, times(1)).findDeviceDtoById(1L);
+        verify(deviceRepository, never()).findById(1L);
     }
 
     /**
@@ -112,10 +224,10 @@ class DeviceServiceImplTest {
      */
     @Test
     void shouldThrowExceptionWhenDeviceNotFoundById() {
-        when(deviceRepository.findById(1L)).thenReturn(Optional.empty());
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> deviceService.fetchDeviceById(1L));
-        verify(deviceRepository, times(1)).findById(1L);
+        verify(deviceRepository, times(1)).findDeviceDtoById(1L);
     }
 
     /**
@@ -125,28 +237,129 @@ class DeviceServiceImplTest {
    @Test
     void shouldFetchDevicesWhenNoFilter() {
        Specification<Device> specification = Specification.where(null);
-       when(deviceRepository.findAll(specification)).thenReturn(buildDevices());
+       when(deviceRepository.findDeviceDtos(specification, 0)).thenReturn(buildDeviceDtos());
        List<DeviceDto> devices = deviceService.fetchDevices(null, null);
        assertNotNull(devices);
-       verify(deviceRepository, times(1)).findAll(specification);
+       verify(deviceRepository, times(1)).findDeviceDtos(specification, 0);
+       verify(deviceRepository, never()).findAll(specification);
+       verify(listCache, never()).evict(any());
+    }
+
+    /**
+     * This test verifies that a list of devices is read from the list cache under the key holding its
+     * version, without querying the repository when the list is cached.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFetchDevicesFromListCache() {
+        DeviceListKey key = new DeviceListKey("apple", State.AVAILABLE, "v1");
+        List<DeviceDto> cached = buildDeviceDtos();
+        when(deviceListVersions.keyOf("Apple", State.AVAILABLE)).thenReturn(key);
+        when(listCache.get(eq(key), any(Callable.class))).thenReturn(cached);
+
+        assertSame(cached, deviceService.fetchDevices("Apple", "AVAILABLE"));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDevices("Apple", "BROKEN"));
+        verify(deviceRepository, never()).findDeviceDtos(any(Specification.class), eq(0));
+    }
+
+    /**
+     * This test verifies that a page of devices is fetched with a cursor pointing
+     * to the last device of the page when more devices are available.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFetchDevicePageWithNextCursor() {
+        when(deviceRepository.findDeviceDtos(any(Specification.class), eq(3))).thenReturn(buildDeviceDtos());
+        DevicePageDto page = deviceService.fetchDevices(null, null, 2, null);
+        assertNotNull(page);
+        assertEquals(2, page.getDevices().size(), "Page size does not match");
+        assertEquals(DeviceCursor.encode(2L), page.getNextCursor(), "Next cursor does not match");
+    }
+
+    /**
+     * This test verifies that the last page of devices has no next cursor.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFetchLastDevicePageWithoutNextCursor() {
+        when(deviceRepository.findDeviceDtos(any(Specification.class), eq(4))).thenReturn(buildDeviceDtos());
+        DevicePageDto page = deviceService.fetchDevices(null, null, 3, DeviceCursor.encode(0L));
+        assertEquals(3, page.getDevices().size(), "Page size does not match");
+        assertNull(page.getNextCursor(), "Next cursor should be null");
+    }
+
+    /**
+     * Verifies that an {@link IllegalArgumentException} is thrown
+     * when fetching a page of devices with an invalid cursor or limit.
+     */
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenFetchDevicePageWithInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDevices(null, null, 10, "%%%"));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDevices(null, null, 0, null));
+    }
+
+    /**
+     * This test verifies that device IDs are fetched from the state index, and that
+     * an invalid state or limit is rejected.
+     */
+    @Test
+    void shouldFetchDeviceIdsFromStateIndex() {
+        when(deviceStateIndex.findIds("Apple", State.AVAILABLE, 2)).thenReturn(new long[]{1L, 2L});
+
+        assertArrayEquals(new long[]{1L, 2L}, deviceService.fetchDeviceIds("Apple", "AVAILABLE", 2));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDeviceIds("Apple", "BROKEN", 2));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDeviceIds("Apple", "AVAILABLE", 0));
+        verify(deviceRepository, never()).findDeviceDtos(any(Specification.class), eq(2));
+    }
+
+    /**
+     * This test verifies that a page of devices is searched in the name index, loaded by ID and filtered
+     * by brand again, with a cursor pointing to the last device of the page when more devices match.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSearchDevicePageWithNextCursor() {
+        when(deviceNameIndex.search("phone", "Apple", State.AVAILABLE, 0L, 3)).thenReturn(new long[]{1L, 2L, 3L});
+        when(deviceRepository.findDeviceDtos(any(Specification.class), eq(0))).thenReturn(buildDeviceDtos().subList(0, 2));
+
+        DevicePageDto page = deviceService.searchDevices("phone", "Apple", "AVAILABLE", 2, null);
+        assertEquals(2, page.getDevices().size(), "Page size does not match");
+        assertEquals(DeviceCursor.encode(2L), page.getNextCursor(), "Next cursor does not match");
+        verify(brandDictionary).spellingsOf("Apple");
+    }
+
+    /**
+     * Verifies that an {@link IllegalArgumentException} is thrown
+     * when searching devices with an empty text, an invalid state or limit,
+     * and that no device is loaded when none matches.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldThrowIllegalArgumentExceptionWhenSearchDevicesWithInvalidInput() {
+        when(deviceNameIndex.search("phone", null, null, 2L, 11)).thenReturn(new long[0]);
+
+        assertTrue(deviceService.searchDevices("phone", null, null, 10, DeviceCursor.encode(2L)).getDevices().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> deviceService.searchDevices(" ", null, null, 10, null));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.searchDevices("phone", null, "BROKEN", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.searchDevices("phone", null, null, 0, null));
+        verify(deviceRepository, never()).findDeviceDtos(any(Specification.class), eq(0));
     }
 
     /**
      * This test verifies that a device can be deleted by its ID when the state of
-     * the device is not IN_USE.
+     * the device is not IN_USE, with a single statement, and that its change carries the indexed device.
      */
     @Test
     void shouldDeleteDeviceWhenNotInUse() {
-        Device device = new Device();
-        device.setId(1L);
-        device.setName("Device name");
-        device.setBrand("Device brand");
-        device.setState(State.AVAILABLE);
-        device.setCreatedBy("TEST_USER");
-        device.setCreatedAt(LocalDateTime.now());
-        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+        DeviceDto indexed = new DeviceDto(1L, null, "Device brand", State.AVAILABLE, 2L);
+        when(deviceStateIndex.find(1L)).thenReturn(indexed);
+        when(deviceRepository.deleteIfNotInUse(1L)).thenReturn(1);
         deviceService.deleteById(1L);
-        verify(deviceRepository, times(1)).deleteById(1L);
+        verify(deviceRepository, times(1)).deleteIfNotInUse(1L);
+        verify(deviceRepository, never()).findById(1L);
+        verify(deviceRepository, never()).findDeviceDtoById(1L);
+        verify(deviceRepository, never()).existsById(1L);
+        verify(eventPublisher).publishEvent(DeviceChangedEvent.deleted(indexed));
     }
 
     /**
@@ -155,16 +368,35 @@ class DeviceServiceImplTest {
      */
     @Test
     void shouldThrowDeviceInUseExceptionWhenDeleteDeviceInUse() {
-        Device device = new Device();
-        device.setId(1L);
-        device.setName("Device name");
-        device.setBrand("Device brand");
-        device.setCreatedBy("TEST_USER");
-        device.setCreatedAt(LocalDateTime.now());
-        device.setState(State.IN_USE);
-        when(deviceRepository.findById(1L)).thenReturn(Optional.of(device));
+        when(deviceStateIndex.find(1L)).thenReturn(new DeviceDto(1L, null, "Device brand", State.IN_USE, 2L));
+        when(deviceRepository.deleteIfNotInUse(1L)).thenReturn(0);
+        when(deviceRepository.existsById(1L)).thenReturn(true);
         assertThrows(DeviceInUseException.class, () -> deviceService.deleteById(1L));
-        verify(deviceRepository, never()).deleteById(1L);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * This test verifies that attempting to delete a device that does not exist
+     * results in a ResourceNotFoundException being thrown.
+     */
+    @Test
+    void shouldThrowExceptionWhenDeleteNonExistingDevice() {
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.deleteById(1L));
+        verify(deviceRepository, never()).deleteIfNotInUse(1L);
+    }
+
+    /**
+     * This test verifies that a device deleted concurrently after being found in the index
+     * results in a ResourceNotFoundException being thrown.
+     */
+    @Test
+    void shouldThrowExceptionWhenDeleteDeviceDeletedConcurrently() {
+        when(deviceStateIndex.find(1L)).thenReturn(new DeviceDto(1L, null, "Device brand", State.AVAILABLE, 2L));
+        when(deviceRepository.deleteIfNotInUse(1L)).thenReturn(0);
+        when(deviceRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.deleteById(1L));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     /**
@@ -211,6 +443,195 @@ class DeviceServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> deviceService.updateDevice(new DeviceDto(), 1L));
     }
 
+    /**
+     * This test verifies that a device is updated with a single conditional statement when its version
+     * matches, without being read, and that its change starts from the indexed device.
+     */
+    @Test
+    void shouldUpdateDeviceWhenVersionMatches() {
+        DeviceDto updateDto = new DeviceDto(null, "NewName", "NewBrand", State.IN_USE, null);
+        when(deviceStateIndex.find(1L)).thenReturn(new DeviceDto(1L, null, "Device brand", State.AVAILABLE, 3L));
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.of("TEST_USER"));
+        when(deviceRepository.updateIfVersionMatches(eq(1L), eq(3L), eq("NewName"), eq("NewBrand"),
+                eq(State.IN_USE), any(LocalDateTime.class), eq("TEST_USER"))).thenReturn(1);
+        DeviceDto updatedDevice = deviceService.updateDevice(updateDto, 1L, 3L);
+        assertEquals(new DeviceDto(1L, "NewName", "NewBrand", State.IN_USE, 4L), updatedDevice);
+        verify(brandDictionary).idOf("NewBrand");
+        verify(deviceRepository, never()).findById(1L);
+        verify(deviceRepository, never()).findDeviceDtoById(1L);
+        verify(deviceRepository, never()).lockDeviceById(1L);
+        verify(eventPublisher).publishEvent(DeviceChangedEvent.updated(
+                new DeviceDto(1L, null, "Device brand", State.AVAILABLE, 3L), updatedDevice));
+    }
+
+    /**
+     * This test verifies that the change of an updated device starts from the cached device when there is one.
+     */
+    @Test
+    void shouldUpdateDeviceFromCachedDevice() {
+        DeviceDto updateDto = new DeviceDto(null, "NewName", "NewBrand", State.AVAILABLE, null);
+        DeviceDto cached = DeviceMapper.mapToDeviceDto(buildDevice(State.AVAILABLE, 3L));
+        when(cache.get(1L, DeviceDto.class)).thenReturn(cached);
+        when(auditorAware.getCurrentAuditor()).thenReturn(Optional.empty());
+        when(deviceRepository.updateIfVersionMatches(eq(1L), eq(3L), any(), any(), any(), any(), any()))
+                .thenReturn(1);
+        DeviceDto updatedDevice = deviceService.updateDevice(updateDto, 1L, 3L);
+        verify(deviceStateIndex, never()).find(1L);
+        verify(eventPublisher).publishEvent(DeviceChangedEvent.updated(cached, updatedDevice));
+    }
+
+    /**
+     * This test verifies that a {@link PreconditionFailedException} is thrown
+     * when the version of the device to update does not match.
+     */
+    @Test
+    void shouldThrowPreconditionFailedExceptionWhenVersionDoesNotMatch() {
+        DeviceDto updateDto = new DeviceDto(null, "NewName", "NewBrand", State.AVAILABLE, null);
+        when(deviceStateIndex.find(1L)).thenReturn(new DeviceDto(1L, null, "Device brand", State.AVAILABLE, 4L));
+        when(deviceRepository.updateIfVersionMatches(eq(1L), eq(3L), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(
+                Optional.of(DeviceMapper.mapToDeviceDto(buildDevice(State.AVAILABLE, 4L))));
+        assertThrows(PreconditionFailedException.class, () -> deviceService.updateDevice(updateDto, 1L, 3L));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * This test verifies that a {@link DeviceInUseException} is thrown when the version
+     * matches but the name of a device in use would change.
+     */
+    @Test
+    void shouldThrowDeviceInUseExceptionWhenUpdateDeviceInUseWithVersion() {
+        DeviceDto updateDto = new DeviceDto(null, "NewName", "Device brand", State.IN_USE, null);
+        when(deviceStateIndex.find(1L)).thenReturn(new DeviceDto(1L, null, "Device brand", State.IN_USE, 3L));
+        when(deviceRepository.updateIfVersionMatches(eq(1L), eq(3L), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(
+                Optional.of(DeviceMapper.mapToDeviceDto(buildDevice(State.IN_USE, 3L))));
+        assertThrows(DeviceInUseException.class, () -> deviceService.updateDevice(updateDto, 1L, 3L));
+    }
+
+    /**
+     * This test verifies that a {@link ResourceNotFoundException} is thrown, without updating anything,
+     * when the device to update with a version is neither indexed nor stored.
+     */
+    @Test
+    void shouldThrowExceptionWhenUpdateNonExistingDeviceWithVersion() {
+        DeviceDto updateDto = new DeviceDto(null, "NewName", "NewBrand", State.AVAILABLE, null);
+        when(deviceRepository.findDeviceDtoById(1L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.updateDevice(updateDto, 1L, 3L));
+        verify(deviceRepository, never()).updateIfVersionMatches(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * This test verifies that checking out a device puts the available device
+     * locked by the repository in use.
+     */
+    @Test
+    void shouldCheckoutAvailableDevice() {
+        Device device = buildDevices().get(0);
+        when(brandDictionary.spellingsOf("device BRAND")).thenReturn(List.of("Device brand"));
+        when(brandDictionary.knownIdOf("Device brand")).thenReturn(7);
+        when(deviceRepository.lockAvailableDeviceByBrand(List.of(7))).thenReturn(Optional.of(device));
+        DeviceDto checkedOut = deviceService.checkoutDevice("device BRAND");
+        assertEquals(1L, checkedOut.getId(), "Device ID does not match");
+        assertEquals(State.IN_USE, checkedOut.getState(), "Device should be in use");
+        verify(deviceRepository).saveAndFlush(device);
+        verify(deviceRepository, never()).lockAvailableDevice();
+        verify(eventPublisher).publishEvent(any(DeviceChangedEvent.class));
+    }
+
+    /**
+     * This test verifies that a {@link DeviceNotAvailableException} is thrown
+     * when no device is available to check out.
+     */
+    @Test
+    void shouldThrowDeviceNotAvailableExceptionWhenNoDeviceAvailable() {
+        when(deviceRepository.lockAvailableDevice()).thenReturn(Optional.empty());
+        assertThrows(DeviceNotAvailableException.class, () -> deviceService.checkoutDevice(null));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * This test verifies that releasing a device in use makes it available again.
+     */
+    @Test
+    void shouldReleaseDeviceInUse() {
+        when(deviceRepository.lockDeviceById(1L)).thenReturn(Optional.of(buildDevice(State.IN_USE, 1L)));
+        when(deviceRepository.updateStateIfCurrent(eq(1L), eq(State.IN_USE), eq(State.AVAILABLE),
+                any(LocalDateTime.class), any())).thenReturn(1);
+        DeviceDto released = deviceService.releaseDevice(1L);
+        assertEquals(new DeviceDto(1L, "Device name", "Device brand", State.AVAILABLE, 2L), released,
+                "Released device does not match");
+        verify(eventPublisher).publishEvent(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "Device name", "Device brand", State.IN_USE, 1L), released));
+    }
+
+    /**
+     * This test verifies that a {@link DeviceNotInUseException} is thrown
+     * when releasing a device that is not in use.
+     */
+    @Test
+    void shouldThrowDeviceNotInUseExceptionWhenReleaseDeviceNotInUse() {
+        when(deviceRepository.lockDeviceById(1L)).thenReturn(Optional.of(buildDevice(State.AVAILABLE, 1L)));
+        when(deviceRepository.updateStateIfCurrent(eq(1L), any(), any(), any(), any())).thenReturn(0);
+        assertThrows(DeviceNotInUseException.class, () -> deviceService.releaseDevice(1L));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * This test verifies that changing the state of devices by ID updates the devices the repository
+     * locked in one statement, publishes their changes, evicts them from the cache, and counts the
+     * requested IDs it could not change as skipped, each once however many times it was given.
+     */
+    @Test
+    void shouldChangeDeviceStatesByIds() {
+        List<Device> devices = buildDevices().subList(0, 2);
+        devices.forEach(device -> device.setVersion(0L));
+        when(deviceRepository.lockDevices(any(), eq(DevicesConstants.STATE_CHANGE_BATCH_SIZE))).thenReturn(devices);
+        DeviceStateChangeResultDto result = deviceService.changeDeviceStates(
+                new DeviceStateChangeDto(State.INACTIVE, Arrays.asList(1L, 2L, 3L, 3L, 2L, null), null, null));
+        assertEquals(2, result.getUpdated(), "Updated count does not match");
+        assertEquals(1, result.getSkipped(), "Skipped count does not match");
+        verify(deviceRepository).updateStates(eq(List.of(1L, 2L)), eq(State.INACTIVE), any(LocalDateTime.class), any());
+        verify(eventPublisher).publishEvent(DeviceChangedEvent.updated(
+                new DeviceDto(1L, "Device name", "Device brand", State.AVAILABLE, 0L),
+                new DeviceDto(1L, "Device name", "Device brand", State.INACTIVE, 1L)));
+        verify(eventPublisher, times(2)).publishEvent(any(DeviceChangedEvent.class));
+        verify(cache).evict(1L);
+        verify(cache).evict(2L);
+    }
+
+    /**
+     * This test verifies that changing the state of devices by filter keeps locking chunks
+     * until a chunk is not full, and updates nothing when no device matches.
+     */
+    @Test
+    void shouldChangeDeviceStatesByFilterUntilNoDeviceLeft() {
+        when(deviceRepository.lockDevices(any(), eq(DevicesConstants.STATE_CHANGE_BATCH_SIZE))).thenReturn(List.of());
+        DeviceStateChangeResultDto result = deviceService.changeDeviceStates(
+                new DeviceStateChangeDto(State.AVAILABLE, null, "Device brand", State.INACTIVE));
+        assertEquals(0, result.getUpdated(), "Updated count does not match");
+        verify(deviceRepository, times(1)).lockDevices(any(), eq(DevicesConstants.STATE_CHANGE_BATCH_SIZE));
+        verify(deviceRepository, never()).updateStates(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    /**
+     * This test verifies that an {@link IllegalArgumentException} is thrown when devices would be put
+     * in use, or are given both or neither by ID and by filter.
+     */
+    @Test
+    void shouldThrowIllegalArgumentExceptionWhenChangeDeviceStatesWithInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> deviceService.changeDeviceStates(
+                new DeviceStateChangeDto(State.IN_USE, List.of(1L), null, null)));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.changeDeviceStates(
+                new DeviceStateChangeDto(State.INACTIVE, List.of(1L), "Device brand", null)));
+        assertThrows(IllegalArgumentException.class, () -> deviceService.changeDeviceStates(
+                new DeviceStateChangeDto(State.INACTIVE, null, " ", null)));
+        verify(deviceRepository, never()).lockDevices(any(), anyInt());
+    }
+
     /**
      * Verifies that an {@link IllegalArgumentException} is thrown
      * when attempting to fetch a device by a null ID.
@@ -220,6 +641,19 @@ class DeviceServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> deviceService.fetchDeviceById(null));
     }
 
+    // Returns the list of devices used in unit tests, as projected by the repository.
+    private static List<DeviceDto> buildDeviceDtos() {
+        return buildDevices().stream().map(DeviceMapper::mapToDeviceDto).toList();
+    }
+
+    // Returns the first device used in unit tests, in the given state and with the given version.
+    private static Device buildDevice(State state, Long version) {
+        Device device = buildDevices().get(0);
+        device.setState(state);
+        device.setVersion(version);
+        return device;
+    }
+
     // Returns a list of devices used in unit tests.
     private static List<Device> buildDevices() {
         Device device = new Device();
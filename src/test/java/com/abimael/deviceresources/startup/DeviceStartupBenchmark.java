@@ -0,0 +1,228 @@
+package com.abimael.deviceresources.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark of the application, comparing the executable jar with the jar processed ahead of
+ * time and run from its extracted layout with a class data sharing archive, as the fast startup image does.
+ * Each instance is started as a new process, and measured from the process start until it answers
+ * its first device list request, then by its resident set size once it answered.
+ * The variants are started in turn so that a slower machine affects them alike, and each run writes a
+ * report directory with the {@code summary.csv} of the variants and the {@code samples.csv} of every start.
+ * The instances use the MySQL database of {@code application.yml}, which must be running, and whose schema
+ * must exist, since the training run of the AOT variant does not initialize it.
+ * RSS is read from {@code /proc}, so it is only reported on Linux.
+ * Run with {@code mvn -Pstartup test-compile exec:exec -Dstartup.args="runs=10"}, after
+ * {@code mvn package} and {@code mvn -Paot package}.
+ */
+public final class DeviceStartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceStartupBenchmark.class);
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    // Reported when the resident set size cannot be read.
+    private static final long UNKNOWN = -1;
+
+    private final StartupOptions options;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    DeviceStartupBenchmark(StartupOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path report = new DeviceStartupBenchmark(StartupOptions.parse(args)).run();
+        logger.info("Report written to {}", report.toAbsolutePath());
+    }
+
+    /**
+     * Prepares the AOT variant, starts each variant the configured number of times, and writes the report.
+     *
+     * @return the directory of the report
+     * @throws IOException if an instance fails to start or the report cannot be written
+     * @throws InterruptedException if the run is interrupted
+     */
+    Path run() throws IOException, InterruptedException {
+        Files.createDirectories(options.workDirectory());
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jar", command(List.of(), options.jar()));
+        variants.put("aot-cds", prepareAot());
+        Map<String, List<long[]>> samples = new LinkedHashMap<>();
+        for (int run = 1; run <= options.runs(); run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                long[] sample = measure(variant.getKey(), variant.getValue());
+                logger.info("Run {} of {}: first request after {} ms, RSS {} KiB", run, variant.getKey(),
+                        String.format("%.1f", sample[0] / NANOS_PER_MILLI), sample[1]);
+                samples.computeIfAbsent(variant.getKey(), key -> new ArrayList<>()).add(sample);
+            }
+        }
+        return writeReport(samples);
+    }
+
+    // Extracts the AOT jar and records its CDS archive with a training run, returning the command running it.
+    private List<String> prepareAot() throws IOException, InterruptedException {
+        Path directory = options.workDirectory().resolve("aot");
+        FileSystemUtils.deleteRecursively(directory);
+        await("extraction", new ProcessBuilder(List.of(java(), "-Djarmode=tools", "-jar",
+                options.aotJar().toString(), "extract", "--destination", directory.toString())));
+        Path application = directory.resolve(options.aotJar().getFileName());
+        Path archive = directory.resolve("application.jsa");
+        logger.info("Recording the class data sharing archive of {}", application);
+        // Like the training run of the image, it only reads the database
+        await("training run", new ProcessBuilder(command(List.of("-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh", "-Dspring.sql.init.mode=never",
+                "-Dspring.datasource.hikari.read-only=true"), application)));
+        return command(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"), application);
+    }
+
+    // Starts the instance, waits for its first successful request, and returns the elapsed nanos and RSS in KiB.
+    private long[] measure(String variant, List<String> command) throws IOException, InterruptedException {
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + options.port());
+        ProcessBuilder builder = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(
+                        options.workDirectory().resolve(variant + ".log").toFile()));
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + options.port() + "/api/devices?limit=1")).build();
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long deadline = start + options.timeout().toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IOException(variant + " exited with " + process.exitValue()
+                            + ", see " + options.workDirectory().resolve(variant + ".log"));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new long[]{System.nanoTime() - start, residentSetKib(process.pid())};
+                    }
+                } catch (IOException ex) {
+                    // Not listening yet
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IOException(variant + " did not answer within " + options.timeout());
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Runs the process to completion, failing unless it exits normally.
+    private void await(String step, ProcessBuilder builder) throws IOException, InterruptedException {
+        Path log = options.workDirectory().resolve("aot-prepare.log");
+        Process process = builder.redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                .start();
+        if (!process.waitFor(options.timeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            process.destroyForcibly().waitFor();
+            throw new IOException("The " + step + " did not complete within " + options.timeout());
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("The " + step + " exited with " + process.exitValue() + ", see " + log);
+        }
+    }
+
+    // Returns the command running the jar with the given JVM options, and those and profiles of the run.
+    private List<String> command(List<String> jvmOptions, Path jar) {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(options.jvmArgs());
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar.toString());
+        if (!options.profiles().isBlank()) {
+            command.add("--spring.profiles.active=" + options.profiles());
+        }
+        return command;
+    }
+
+    // Writes the median, minimum and maximum of each variant, and every sample.
+    private Path writeReport(Map<String, List<long[]>> samples) throws IOException {
+        Path directory = options.reportDirectory()
+                .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Files.createDirectories(directory);
+        List<String> summary = new ArrayList<>();
+        summary.add("variant,runs,first_request_p50_ms,first_request_min_ms,first_request_max_ms,"
+                + "rss_p50_mib,rss_max_mib");
+        List<String> all = new ArrayList<>();
+        all.add("variant,run,first_request_ms,rss_kib");
+        for (Map.Entry<String, List<long[]>> variant : samples.entrySet()) {
+            List<long[]> values = variant.getValue();
+            long[] times = values.stream().mapToLong(sample -> sample[0]).sorted().toArray();
+            long[] rss = values.stream().mapToLong(sample -> sample[1]).sorted().toArray();
+            summary.add(String.format("%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f", variant.getKey(), values.size(),
+                    median(times) / NANOS_PER_MILLI, times[0] / NANOS_PER_MILLI,
+                    times[times.length - 1] / NANOS_PER_MILLI, median(rss) / 1024.0, rss[rss.length - 1] / 1024.0));
+            for (int i = 0; i < values.size(); i++) {
+                all.add(String.format("%s,%d,%.1f,%d", variant.getKey(), i + 1,
+                        values.get(i)[0] / NANOS_PER_MILLI, values.get(i)[1]));
+            }
+        }
+        Files.write(directory.resolve("summary.csv"), summary);
+        Files.write(directory.resolve("samples.csv"), all);
+        Files.writeString(directory.resolve("options.txt"), String.format(
+                "jar=%s%naot-jar=%s%nprofiles=%s%njvm-args=%s%nruns=%d%njava=%s%n",
+                options.jar(), options.aotJar(), options.profiles(), String.join(" ", options.jvmArgs()),
+                options.runs(), Runtime.version()));
+        summary.forEach(logger::info);
+        return directory;
+    }
+
+    private static double median(long[] sorted) {
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    // Reads the VmRSS line of the process status, in KiB.
+    private static long residentSetKib(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ex) {
+            // Not on Linux
+        }
+        return UNKNOWN;
+    }
+
+    // Runs the instances with the JVM running the benchmark.
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.abimael.deviceresources.startup;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Options of a {@link DeviceStartupBenchmark} run, parsed from {@code key=value} arguments.
+ *
+ * @param jar the executable jar of the application
+ * @param aotJar the executable jar of the application processed ahead of time, built with {@code -Paot}
+ * @param profiles the comma-separated profiles every instance runs with, those the AOT jar was processed with
+ * @param jvmArgs the options of the JVM of every instance, e.g. {@code -Xmx512m}
+ * @param runs the number of times each variant is started
+ * @param port the port the instances listen on, one at a time
+ * @param timeout how long an instance may take to answer its first request
+ * @param workDirectory the directory in which the AOT jar is extracted and the logs of the instances are written
+ * @param reportDirectory the directory in which each run writes its report
+ */
+public record StartupOptions(Path jar, Path aotJar, String profiles, List<String> jvmArgs, int runs, int port,
+                             Duration timeout, Path workDirectory, Path reportDirectory) {
+
+    /**
+     * Parses the options from the given arguments, using defaults for the missing ones.
+     * An argument given twice takes its last value.
+     *
+     * @param args the arguments, e.g. {@code runs=10 profiles=fast jvm-args=-Xmx512m}
+     * @return the options
+     * @throws IllegalArgumentException if an argument is not valid
+     */
+    public static StartupOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            checkArgument(separator > 0, "Argument must be key=value: %s", arg);
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        checkArgument(values.containsKey("jar") && values.containsKey("aot-jar"), "Both jar and aot-jar must be given");
+        String jvmArgs = values.getOrDefault("jvm-args", "").trim();
+        StartupOptions options = new StartupOptions(
+                Path.of(values.get("jar")),
+                Path.of(values.get("aot-jar")),
+                values.getOrDefault("profiles", ""),
+                jvmArgs.isEmpty() ? List.of() : Arrays.asList(jvmArgs.split("\\s+")),
+                Integer.parseInt(values.getOrDefault("runs", "5")),
+                Integer.parseInt(values.getOrDefault("port", "18080")),
+                DurationStyle.detectAndParse(values.getOrDefault("timeout", "2m")),
+                Path.of(values.getOrDefault("work-dir", "target/startup")),
+                Path.of(values.getOrDefault("report-dir", "target/startup-reports")));
+        checkArgument(options.runs() > 0, "Runs must be positive");
+        return options;
+    }
+}
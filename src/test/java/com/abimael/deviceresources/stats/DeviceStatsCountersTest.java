@@ -0,0 +1,98 @@
+package com.abimael.deviceresources.stats;
+
+import com.abimael.deviceresources.dto.DeviceDto;
+import com.abimael.deviceresources.dto.DeviceStatsDto;
+import com.abimael.deviceresources.event.DeviceChangedEvent;
+import com.abimael.deviceresources.repository.BrandStateCount;
+import com.abimael.deviceresources.repository.DeviceRepository;
+import com.abimael.deviceresources.util.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DeviceStatsCounters}.
+ * Verifies the counters are seeded from the grouped query and follow device changes.
+ */
+class DeviceStatsCountersTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @InjectMocks
+    private DeviceStatsCounters deviceStatsCounters;
+
+    private AutoCloseable autoCloseable;
+
+    /**
+     * Initialize the Mockito annotations and seed the counters with two brands.
+     */
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        when(deviceRepository.countByBrandAndState()).thenReturn(List.of(
+                new BrandStateCount("Apple", State.AVAILABLE, 3L),
+                new BrandStateCount("Apple", State.IN_USE, 1L),
+                new BrandStateCount("Nokia", State.AVAILABLE, 2L)
+        ));
+        deviceStatsCounters.seed();
+    }
+
+    /**
+     * Clean up resources after each test by closing the AutoCloseable instance.
+     */
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    /**
+     * This test verifies that the counts match the grouped query used as seed.
+     */
+    @Test
+    void shouldCountSeededDevices() {
+        DeviceStatsDto stats = deviceStatsCounters.snapshot();
+        assertEquals(6, stats.getTotal(), "Total does not match");
+        assertEquals(5, stats.getByState().get(State.AVAILABLE), "AVAILABLE count does not match");
+        assertEquals(0, stats.getByState().get(State.INACTIVE), "INACTIVE count does not match");
+        assertEquals(1, stats.getByBrandAndState().get("Apple").get(State.IN_USE), "Apple IN_USE count does not match");
+    }
+
+    /**
+     * This test verifies that the counts follow devices being created, updated and deleted.
+     */
+    @Test
+    void shouldAdjustCountsOnDeviceChanges() {
+        DeviceDto nokia = device("Nokia", State.AVAILABLE);
+        DeviceDto nokiaInUse = device("Nokia", State.IN_USE);
+
+        deviceStatsCounters.onDeviceChanged(DeviceChangedEvent.created(device("Lenovo", State.INACTIVE)));
+        deviceStatsCounters.onDeviceChanged(DeviceChangedEvent.updated(nokia, nokiaInUse));
+        deviceStatsCounters.onDeviceChanged(DeviceChangedEvent.deleted(nokia));
+
+        DeviceStatsDto stats = deviceStatsCounters.snapshot();
+        assertEquals(6, stats.getTotal(), "Total does not match");
+        assertEquals(1, stats.getByState().get(State.INACTIVE), "INACTIVE count does not match");
+        assertEquals(2, stats.getByState().get(State.IN_USE), "IN_USE count does not match");
+        assertFalse(stats.getByBrandAndState().get("Nokia").containsKey(State.AVAILABLE),
+                "Nokia should have no AVAILABLE device left");
+    }
+
+    // Returns a device of the given brand and state.
+    private static DeviceDto device(String brand, State state) {
+        DeviceDto device = new DeviceDto();
+        device.setName("Device name");
+        device.setBrand(brand);
+        device.setState(state);
+        return device;
+    }
+}
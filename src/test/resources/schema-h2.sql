@@ -0,0 +1,45 @@
+CREATE TABLE IF NOT EXISTS brand (
+    brand_id int AUTO_INCREMENT PRIMARY KEY,
+    brand_name varchar(100) NOT NULL,
+    CONSTRAINT uk_brand_name UNIQUE (brand_name)
+    );
+
+CREATE TABLE IF NOT EXISTS device (
+    device_id bigint PRIMARY KEY,
+    device_name varchar(50) NOT NULL,
+    device_brand_id int NOT NULL,
+    device_state varchar(20) NOT NULL,
+    created_at datetime NOT NULL,
+    created_by varchar(20) NOT NULL,
+    updated_at datetime DEFAULT NULL,
+    updated_by varchar(20) DEFAULT NULL,
+    version bigint NOT NULL DEFAULT 0,
+    CONSTRAINT fk_device_brand FOREIGN KEY (device_brand_id) REFERENCES brand (brand_id)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_device_brand_id_state ON device (device_brand_id, device_state);
+
+CREATE INDEX IF NOT EXISTS idx_device_state ON device (device_state);
+
+CREATE INDEX IF NOT EXISTS idx_device_updated_at ON device (updated_at);
+
+CREATE TABLE IF NOT EXISTS device_audit (
+    audit_id bigint AUTO_INCREMENT PRIMARY KEY,
+    device_id bigint NOT NULL,
+    action varchar(10) NOT NULL,
+    before_name varchar(50) DEFAULT NULL,
+    before_brand varchar(100) DEFAULT NULL,
+    before_state varchar(20) DEFAULT NULL,
+    after_name varchar(50) DEFAULT NULL,
+    after_brand varchar(100) DEFAULT NULL,
+    after_state varchar(20) DEFAULT NULL,
+    after_version bigint DEFAULT NULL,
+    changed_at datetime(6) NOT NULL,
+    changed_by varchar(100) DEFAULT NULL,
+    client_id varchar(100) DEFAULT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idx_device_audit_device ON device_audit (device_id, audit_id);
+
+-- H2 has sequences, so Hibernate uses this one instead of emulating it with a table as on MySQL
+CREATE SEQUENCE IF NOT EXISTS device_seq START WITH 1 INCREMENT BY 50;